@@ -1,18 +1,31 @@
 package edu.montana.csci.csci468;
 
-import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BudgetExceededException;
+import edu.montana.csci.csci468.eval.BudgetMeter;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.OutputSink;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.StringOutputSink;
+import edu.montana.csci.csci468.eval.WriterOutputSink;
 import edu.montana.csci.csci468.js.JSTranspiler;
-import edu.montana.csci.csci468.parser.CatScriptParser;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.ParseErrorException;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
 import edu.montana.csci.csci468.tokenizer.TokenList;
+import edu.montana.csci.csci468.util.EndpointExecutor;
 import edu.montana.csci.csci468.util.HTMLParseTreeRenderer;
+import edu.montana.csci.csci468.util.ProgramCache;
 import edu.montana.csci.csci468.util.Web;
+import spark.Request;
+import spark.Response;
 import spark.Spark;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -23,8 +36,32 @@ import java.util.stream.Collectors;
 import static spark.Spark.*;
 
 class CatScriptServer {
+
+    // clients resubmit the same scripts constantly, every endpoint shares one parse of each
+    private static final ProgramCache PROGRAMS = new ProgramCache();
+    // how far one request's program may run before it is stopped and its worker handed back
+    private static final ExecutionBudget BUDGET = ExecutionBudget.fromSystemProperties();
+
+    // each endpoint gets its own limits so that slow compiles and transpiles can't starve the
+    // cheap tokenize and parse requests of server threads
+    private static final int CPUS = Runtime.getRuntime().availableProcessors();
+    private static final EndpointExecutor TOKENIZE = new EndpointExecutor("tokenize", 4 * CPUS, 64);
+    private static final EndpointExecutor PARSE = new EndpointExecutor("parse", 4 * CPUS, 64);
+    private static final EndpointExecutor EVALUATE = new EndpointExecutor("evaluate", 2 * CPUS, 32);
+    private static final EndpointExecutor TRANSPILE = new EndpointExecutor("transpile", Math.max(1, CPUS / 2), 8);
+    private static final EndpointExecutor COMPILE = new EndpointExecutor("compile", CPUS, 16);
+    // threads Jetty keeps for accepting and selecting, and for the routes that run unlimited
+    private static final int SERVER_THREADS = 32 + CPUS;
+    // Jetty's own default, the pool never gets smaller than it
+    private static final int DEFAULT_MAX_THREADS = 200;
+
     public static void main(String[] args) {
         port(6789);
+        // a request waits on a server thread for as long as its endpoint holds it, so there must be
+        // one for everything the endpoints can admit or a full endpoint starves the others
+        int endpointThreads = TOKENIZE.getMaxAdmitted() + PARSE.getMaxAdmitted() + EVALUATE.getMaxAdmitted() +
+                TRANSPILE.getMaxAdmitted() + COMPILE.getMaxAdmitted();
+        threadPool(Math.max(DEFAULT_MAX_THREADS, endpointThreads + SERVER_THREADS));
         Spark.staticFiles.location("/public");
         Web.init();
 
@@ -46,39 +83,52 @@ class CatScriptServer {
             return Web.renderTemplate("templates/index.vm", "code", code);
         });
 
-        get("/tokenize", (req, resp) -> {
+        get("/tokenize", TOKENIZE.wrap((req, resp) -> {
             String source = req.queryParams("src");
             TokenList tokens = new CatScriptTokenizer(source).getTokens();
             return "<pre>" +
                     tokens.stream().map(token -> token.toString() + "\n").collect(Collectors.toList()) +
                     "</pr>";
-        });
+        }));
 
-        get("/parse", (req, resp) -> {
+        get("/parse", PARSE.wrap((req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
+            CatScriptProgram program = PROGRAMS.get(source).getProgram();
             return HTMLParseTreeRenderer.render(program);
-        });
+        }));
 
-        get("/evaluate", (req, resp) -> {
+        get("/evaluate", EVALUATE.wrap((req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
             try {
-                program.verify();
-                program.execute();
-                return program.getOutput();
+                ProgramCache.Entry entry = PROGRAMS.get(source);
+                // engine=closure runs the program precompiled into closures instead of walking the tree,
+                // engine=vm compiled to register code
+                String engine = req.queryParams("engine");
+                StatementClosure program;
+                if ("closure".equals(engine)) {
+                    program = entry.getClosure();
+                } else if ("vm".equals(engine)) {
+                    program = entry.getRegisterProgram()::execute;
+                } else {
+                    program = entry.getVerifiedProgram()::execute;
+                }
+                OutputSink output = outputFor(req, resp);
+                try {
+                    program.execute(new CatscriptRuntime(output, new BudgetMeter(BUDGET)));
+                } catch (BudgetExceededException budgetExceededException) {
+                    output.print(budgetExceededException.getMessage());
+                }
+                return finish(output);
             } catch (ParseErrorException parseErrorException) {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
             }
-        });
+        }));
 
-        get("/transpile", (req, resp) -> {
+        get("/transpile", TRANSPILE.wrap((req, resp) -> {
             String source = req.queryParams("src");
-
-            CatScriptProgram program = new CatScriptParser().parse(source);
             try {
-                program.verify();
+                CatScriptProgram program = PROGRAMS.get(source).getVerifiedProgram();
                 JSTranspiler jsTranspiler = new JSTranspiler(program);
                 String jsSource = jsTranspiler.getJavascriptSource();
                 String output = jsTranspiler.evaluate();
@@ -87,22 +137,47 @@ class CatScriptServer {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
             }
-        });
+        }));
 
-        get("/compile", (req, resp) -> {
+        get("/compile", COMPILE.wrap((req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
             try {
-                program.verify();
-                ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program);
-                CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
-                compiledProgram.execute();
-                return compiledProgram.getOutput();
+                CatScriptProgram compiledProgram = PROGRAMS.get(source).getCompiledProgram().newInstance();
+                OutputSink output = outputFor(req, resp);
+                compiledProgram.setOutputSink(output);
+                compiledProgram.setBudget(BUDGET);
+                try {
+                    compiledProgram.execute();
+                } catch (BudgetExceededException budgetExceededException) {
+                    output.print(budgetExceededException.getMessage());
+                }
+                return finish(output);
             } catch (ParseErrorException parseErrorException) {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
             }
-        });
+        }));
+
+        get("/cache", (req, resp) -> "<pre>programs: " + PROGRAMS.getCache() + "</pre>");
+
+        get("/endpoints", (req, resp) -> "<pre>" + Arrays.stream(new EndpointExecutor[]{TOKENIZE, PARSE, EVALUATE, TRANSPILE, COMPILE})
+                .map(EndpointExecutor::toString).collect(Collectors.joining("\n")) + "</pre>");
+
+    }
+
+    // stream=true sends output to the client in chunks as the program prints it, rather than
+    // all at once after it finishes
+    private static OutputSink outputFor(Request req, Response resp) throws IOException {
+        if (!"true".equals(req.queryParams("stream"))) {
+            return new StringOutputSink();
+        }
+        resp.type("text/plain; charset=utf-8");
+        return new WriterOutputSink(new OutputStreamWriter(resp.raw().getOutputStream(), StandardCharsets.UTF_8));
+    }
 
+    // what a route returns once its program has run, streamed output has gone out already
+    private static String finish(OutputSink output) {
+        output.flush();
+        return output instanceof StringOutputSink ? output.toString() : "";
     }
 }
\ No newline at end of file
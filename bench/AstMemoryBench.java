@@ -0,0 +1,57 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps a number of parses of one script alive and reports the heap they retain per AST node,
+// which includes the token views the nodes point at. Run it with -XX:+UseSerialGC so that
+// System.gc() leaves only what is reachable.
+//   java -XX:+UseSerialGC edu.montana.csci.csci468.bench.AstMemoryBench [parses]
+public class AstMemoryBench {
+
+    public static void main(String[] args) throws InterruptedException {
+        int parses = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            source.append("var x").append(i).append(" = [1, 2, 3]\n");
+            source.append("function f").append(i).append("(a : int, b) : int { if (a > b) { print(a + b * 2) } ")
+                    .append("else { return f").append(i).append("(a - 1, b) } return a }\n");
+            source.append("for (y in [1, 2]) { print(y) }\n");
+            source.append("print(1 + 2 * (3 - x").append(i).append("))\n");
+        }
+        String script = source.toString();
+
+        List<CatScriptProgram> retained = new ArrayList<>(parses);
+        long nodes = 0;
+        long before = usedAfterGc();
+        for (int i = 0; i < parses; i++) {
+            CatScriptProgram program = new CatScriptParser().parse(script);
+            nodes += count(program);
+            retained.add(program);
+        }
+        long after = usedAfterGc();
+        System.out.printf("%d parses, %d nodes, %.1f bytes per node%n", retained.size(), nodes,
+                (after - before) / (double) nodes);
+    }
+
+    private static long count(ParseElement element) {
+        long nodes = 1;
+        for (ParseElement child : element.getChildren()) {
+            nodes += count(child);
+        }
+        return nodes;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
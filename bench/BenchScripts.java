@@ -0,0 +1,36 @@
+package edu.montana.csci.csci468.bench;
+
+// Generated CatScript sources for the benchmarks. Every block is a small self-contained program
+// with functions, loops, lists, strings and comments, so sources of any size look alike.
+public class BenchScripts {
+
+    private BenchScripts() {
+    }
+
+    public static String program(int approximateChars) {
+        StringBuilder source = new StringBuilder(approximateChars + 256);
+        int block = 0;
+        while (source.length() < approximateChars) {
+            block(source, block++);
+        }
+        return source.toString();
+    }
+
+    private static void block(StringBuilder source, int n) {
+        source.append("// block ").append(n).append('\n');
+        source.append("function f").append(n).append("(a : int, b : int) : int {\n");
+        source.append("    var total = a * ").append(n % 7 + 1).append(" + b\n");
+        source.append("    for (i in [1, 2, 3, 4]) {\n");
+        source.append("        if (i > 2) {\n");
+        source.append("            total = total + i\n");
+        source.append("        } else {\n");
+        source.append("            total = total - 1\n");
+        source.append("        }\n");
+        source.append("    }\n");
+        source.append("    return total\n");
+        source.append("}\n");
+        source.append("var s").append(n).append(" = \"value ").append(n).append("\"\n");
+        source.append("var x").append(n).append(" = f").append(n).append("(").append(n).append(", 2)\n");
+        source.append("print(s").append(n).append(" + x").append(n).append(")\n");
+    }
+}
@@ -0,0 +1,50 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Runs int heavy programs on the closure engine and reports the best time and the bytes
+// allocated per run, most of which is boxing when intermediate values are passed as objects.
+// The values stay above 127 so that Integer.valueOf can't hand back cached boxes.
+//   java edu.montana.csci.csci468.bench.ClosureBoxingBench [runs]
+public class ClosureBoxingBench {
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < 300; i++) {
+            list.append(i == 0 ? "" : ", ").append(i + 1000);
+        }
+        list.append("]");
+
+        Map<String, String> programs = new LinkedHashMap<>();
+        programs.put("arithmetic", "var l = " + list + "\nvar t = 0\n" +
+                "for (i in l) { for (j in l) { t = t + i * j - (i + 1) * (j - 2) / 3 } }\nprint(t)");
+        programs.put("comparisons", "var l = " + list + "\nvar c = 0\n" +
+                "for (i in l) { for (j in l) { if (i * 2 > j + 500 == true) { c = c + 1 } } }\nprint(c)");
+        programs.put("fib(22)", "function fib(n : int) : int { if (n < 2) { return n } " +
+                "else { return fib(n - 1) + fib(n - 2) } }\nprint(fib(22))");
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (Map.Entry<String, String> entry : programs.entrySet()) {
+            CatScriptProgram program = new CatScriptParser().parse(entry.getValue());
+            program.verify();
+            StatementClosure closure = program.compileClosure();
+            double best = Measure.best(30, runs, () -> closure.execute(new CatscriptRuntime()));
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < runs; i++) {
+                closure.execute(new CatscriptRuntime());
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            System.out.printf("%-12s %8.2f ms  %8.0f KB allocated per run%n", entry.getKey(), best,
+                    allocated / 1024.0 / runs);
+        }
+    }
+}
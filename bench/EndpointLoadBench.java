@@ -0,0 +1,131 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.util.EndpointExecutor;
+import spark.Response;
+import spark.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drives a fixed size pool standing in for the server's threads with half the clients sending
+// slow compiles and half cheap tokenizes, and reports tokenize latency. Run it "shared" to give
+// both straight to the pool, "limited" for endpoint limits on a pool sized from them, or
+// "undersized" for the same limits on a pool that is too small for what they admit.
+//   java edu.montana.csci.csci468.bench.EndpointLoadBench limited [clients] [seconds]
+public class EndpointLoadBench {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private static final Route COMPILE = (req, resp) -> {
+        // a fresh script each time so nothing is cached, and a wait standing in for a slow client
+        String source = "var x = " + SEQUENCE.incrementAndGet() + "\nfor (i in [1, 2, 3]) { print(x + i) }\n" +
+                "function f(a : int) : int { return a * 2 }\nprint(f(x))";
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        CatScriptProgram compiled = new ByteCodeGenerator(program).compileToBytecode();
+        compiled.execute();
+        Thread.sleep(20);
+        return compiled.getOutput();
+    };
+
+    private static final Route TOKENIZE = (req, resp) ->
+            new CatScriptTokenizer("var x = [1, 2, 3]\nprint(x)").getTokens().size();
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "limited";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        EndpointExecutor compile = new EndpointExecutor("compile", 2, 30);
+        EndpointExecutor tokenize = new EndpointExecutor("tokenize", 8, 64);
+        int pool = "limited".equals(mode) ? compile.getMaxAdmitted() + tokenize.getMaxAdmitted() : 24;
+        ExecutorService server = Executors.newFixedThreadPool(pool);
+
+        List<Long> compileNanos = new ArrayList<>();
+        List<Long> tokenizeNanos = new ArrayList<>();
+        AtomicInteger rejected = new AtomicInteger();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            boolean slow = i % 2 == 0;
+            Thread client = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    StatusResponse resp = new StatusResponse();
+                    long start = System.nanoTime();
+                    Future<Object> result = server.submit(() -> {
+                        if ("shared".equals(mode)) {
+                            return (slow ? COMPILE : TOKENIZE).handle(null, resp);
+                        }
+                        return (slow ? compile : tokenize).handle(slow ? COMPILE : TOKENIZE, null, resp);
+                    });
+                    try {
+                        result.get();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    long nanos = System.nanoTime() - start;
+                    if (resp.status == 503) {
+                        rejected.incrementAndGet();
+                    } else {
+                        List<Long> samples = slow ? compileNanos : tokenizeNanos;
+                        synchronized (samples) {
+                            samples.add(nanos);
+                        }
+                    }
+                    pause(slow ? 5 : 2);
+                }
+            });
+            client.start();
+            threads.add(client);
+        }
+        for (Thread client : threads) {
+            client.join();
+        }
+        server.shutdownNow();
+
+        System.out.printf("%s, pool of %d, %d clients%n", mode, pool, clients);
+        report("tokenize", tokenizeNanos);
+        report("compile", compileNanos);
+        System.out.printf("rejected %d%n", rejected.get());
+    }
+
+    private static void report(String name, List<Long> samples) {
+        long[] nanos = samples.stream().mapToLong(Long::longValue).toArray();
+        System.out.printf("%-9s n=%6d  p50 %8.2f ms  p99 %8.2f ms%n", name, nanos.length,
+                Measure.percentile(nanos, 50), Measure.percentile(nanos, 99));
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StatusResponse extends Response {
+        volatile int status = 200;
+
+        @Override
+        public void status(int statusCode) {
+            status = statusCode;
+        }
+
+        @Override
+        public int status() {
+            return status;
+        }
+
+        @Override
+        public void header(String header, String value) {
+        }
+    }
+}
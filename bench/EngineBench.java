@@ -0,0 +1,87 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Runs a few verified programs on every engine, compiling them each time the way a request
+// would, and reports the first run in this JVM and the best of the rest, in ms. The first run of
+// an engine includes loading its classes, so run it in a fresh JVM to see those numbers.
+//   java edu.montana.csci.csci468.bench.EngineBench [runs]
+public class EngineBench {
+
+    private static final String FIB = "function fib(n : int) : int { if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) } }\n";
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Map<String, String> programs = new LinkedHashMap<>();
+        programs.put("small", "var a = 1\nvar b = a * 3 + 2\nif (b > 4) { print(b) } else { print(a) }\n" +
+                "for (i in [1, 2, 3]) { print(i * b) }");
+        programs.put("100x100", "var l = " + list(100) + "\nvar t = 0\n" +
+                "for (i in l) { for (j in l) { t = t + i * j - 1 } }\nprint(t)");
+        programs.put("fib(22)", FIB + "print(fib(22))");
+        programs.put("300x300+", FIB + "var l = " + list(300) + "\nvar t = 0\n" +
+                "for (i in l) { for (j in l) { if (i * j > t / 2) { t = t + 1 } } }\nprint(t)\nprint(fib(20))");
+
+        Map<String, Function<CatScriptProgram, String>> engines = new LinkedHashMap<>();
+        engines.put("tree", program -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            program.execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("closure", program -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            program.compileClosure().execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("vm", program -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            new RegisterCompiler(program).compile().execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("jvm", program -> {
+            CatScriptProgram compiled = new ByteCodeGenerator(program).compileToBytecode();
+            compiled.execute();
+            return compiled.getOutput();
+        });
+
+        System.out.printf("%-9s", "");
+        for (String engine : engines.keySet()) {
+            System.out.printf("%20s", engine + " first/best");
+        }
+        System.out.println();
+        for (Map.Entry<String, String> entry : programs.entrySet()) {
+            CatScriptProgram program = new CatScriptParser().parse(entry.getValue());
+            program.verify();
+            System.out.printf("%-9s", entry.getKey());
+            String expected = null;
+            for (Function<CatScriptProgram, String> engine : engines.values()) {
+                long start = System.nanoTime();
+                String output = engine.apply(program);
+                double first = (System.nanoTime() - start) / 1e6;
+                if (expected == null) {
+                    expected = output;
+                } else if (!expected.equals(output)) {
+                    throw new IllegalStateException("engines disagree on " + entry.getKey());
+                }
+                double best = Measure.best(0, runs, () -> engine.apply(program));
+                System.out.printf("%12.2f/%7.2f", first, best);
+            }
+            System.out.println();
+        }
+    }
+
+    private static String list(int size) {
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            list.append(i == 0 ? "" : ", ").append(i);
+        }
+        return list.append("]").toString();
+    }
+}
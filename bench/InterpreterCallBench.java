@@ -0,0 +1,27 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+// Runs a recursive fib on the tree-walking interpreter, where nearly all the time goes into
+// calls and returns, and prints the time of every run so that the spread shows as well.
+//   java edu.montana.csci.csci468.bench.InterpreterCallBench [n] [runs]
+public class InterpreterCallBench {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 22;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        CatScriptProgram program = new CatScriptParser().parse(
+                "function fib(n : int) : int {\n" +
+                "    if (n <= 1) { return n } else { return fib(n - 1) + fib(n - 2) }\n" +
+                "}\n" +
+                "print(fib(" + n + "))");
+        program.verify();
+
+        for (int run = 1; run <= runs; run++) {
+            long start = System.nanoTime();
+            program.execute();
+            System.out.printf("fib(%d) run %2d  %8.1f ms%n", n, run, (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
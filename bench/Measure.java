@@ -0,0 +1,35 @@
+package edu.montana.csci.csci468.bench;
+
+import java.util.Arrays;
+
+// Timing helpers shared by the benchmarks. Times are in milliseconds.
+public class Measure {
+
+    private Measure() {
+    }
+
+    // the fastest of runs timed runs after warmup untimed ones
+    public static double best(int warmup, int runs, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    // the percentile, 0 to 100, of a set of nanosecond samples
+    public static double percentile(long[] samples, double percentile) {
+        if (samples.length == 0) {
+            return 0;
+        }
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,30 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Tokenizes one large generated source sequentially and then on pools of 2, 4, 8 ... threads up
+// to the larger of 8 and the core count, with both scanners. Pools larger than the number of
+// cores only add overhead, so the speedups to look at are those up to the core count.
+//   java edu.montana.csci.csci468.bench.ParallelTokenizeBench [megabytes]
+public class ParallelTokenizeBench {
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        String source = BenchScripts.program(megabytes * 1024 * 1024);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d MB source, %d cores%n", source.length() >> 20, cores);
+
+        for (CatScriptTokenizer.ScannerType scannerType : CatScriptTokenizer.ScannerType.values()) {
+            double sequential = Measure.best(5, 15, () -> new CatScriptTokenizer(source, scannerType));
+            System.out.printf("%-12s sequential   %8.1f ms%n", scannerType, sequential);
+            for (int threads = 2; threads <= Math.max(8, cores); threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                double parallel = Measure.best(5, 15, () -> new CatScriptTokenizer(source, scannerType, pool));
+                pool.shutdown();
+                System.out.printf("%-12s %2d threads   %8.1f ms  %5.2fx%n", scannerType, threads, parallel, sequential / parallel);
+            }
+        }
+    }
+}
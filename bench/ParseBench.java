@@ -0,0 +1,31 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+// Times parsing programs that open in the different ways parse() tells apart, on tokens that
+// were scanned beforehand so only the parser is measured.
+public class ParseBench {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 36 * 1024;
+        String statements = BenchScripts.program(size);
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < 3000; i++) {
+            list.append(i).append(i < 2999 ? ", " : "]");
+        }
+
+        bench("keyword first", statements);
+        bench("assignment first", "s0 = \"start\"\n" + statements);
+        bench("call first", "f0(" + list + ", 1)\n" + statements);
+        bench("single expression", list + " == " + list);
+        bench("empty", "");
+    }
+
+    private static void bench(String name, String source) {
+        TokenList tokens = new CatScriptTokenizer(source).getTokens();
+        double parse = Measure.best(100, 300, () -> new CatScriptParser().parse(tokens));
+        System.out.printf("%-18s %5d KB  %7.3f ms%n", name, source.length() / 1024, parse);
+    }
+}
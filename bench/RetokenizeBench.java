@@ -0,0 +1,46 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+import java.util.Random;
+
+// Compares re-tokenizing after an edit with tokenizing the edited source from scratch. Typing
+// edits one character after another at a cursor, scattered edits land anywhere in the source.
+public class RetokenizeBench {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4 * 1024 * 1024;
+        String source = BenchScripts.program(size);
+        System.out.printf("source %d KB%n", source.length() / 1024);
+        System.out.printf("full scan         %8.3f ms%n", Measure.best(5, 20, () -> new CatScriptTokenizer(source)));
+
+        for (int round = 0; round < 3; round++) {
+            Random random = new Random(round);
+            TokenList tokens = new CatScriptTokenizer(source).getTokens();
+            int length = source.length();
+            int cursor = length / 2;
+            int edits = 20_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < edits; i++) {
+                if (random.nextInt(4) == 0 && cursor > 0) {
+                    tokens = new CatScriptTokenizer(tokens, --cursor, 1, "").getTokens();
+                    length--;
+                } else {
+                    tokens = new CatScriptTokenizer(tokens, cursor++, 0, random.nextBoolean() ? "x" : " ").getTokens();
+                    length++;
+                }
+            }
+            double typing = (System.nanoTime() - start) / 1e6 / edits;
+
+            edits = 200;
+            start = System.nanoTime();
+            for (int i = 0; i < edits; i++) {
+                tokens = new CatScriptTokenizer(tokens, random.nextInt(length), 0, "y").getTokens();
+                length++;
+            }
+            double scattered = (System.nanoTime() - start) / 1e6 / edits;
+            System.out.printf("round %d: typing %8.4f ms/edit, scattered %8.3f ms/edit%n", round, typing, scattered);
+        }
+    }
+}
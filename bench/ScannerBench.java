@@ -0,0 +1,20 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+
+// Tokenizing throughput of the hand-written and table-driven scanners on one generated source.
+//   java edu.montana.csci.csci468.bench.ScannerBench [megabytes]
+public class ScannerBench {
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        String source = BenchScripts.program(megabytes * 1024 * 1024);
+        double sourceMegabytes = source.length() / (1024.0 * 1024.0);
+        for (int round = 0; round < 3; round++) {
+            for (CatScriptTokenizer.ScannerType scannerType : CatScriptTokenizer.ScannerType.values()) {
+                double millis = Measure.best(5, 10, () -> new CatScriptTokenizer(source, scannerType));
+                System.out.printf("%-12s %8.1f ms  %6.1f MB/s%n", scannerType, millis, sourceMegabytes / (millis / 1000));
+            }
+        }
+    }
+}
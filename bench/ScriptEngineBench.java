@@ -0,0 +1,64 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.js.ScriptEnginePool;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.io.StringWriter;
+
+// Single threaded latency of running small JavaScript programs on a new engine per call, the way
+// transpiled programs used to run, against a pooled engine with and without compiled scripts
+// cached, and then a 300 function script on the pool both ways. Each line is a second, warm round.
+//   java edu.montana.csci.csci468.bench.ScriptEngineBench
+public class ScriptEngineBench {
+
+    private static final String[] SCRIPTS = {
+            "print(1 + 2);",
+            "var x = 10;\nprint(x * 3);",
+            "var s = 'a';\n[1, 2, 3].forEach(function (i) { print(s + i); });",
+            "function f(a) { return a + 1; }\nprint(f(41));",
+    };
+
+    public static void main(String[] args) throws ScriptException {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            large.append("function f").append(i).append("(a) { var t = a; for (var k = 0; k < 3; k++) { t = t * 2 + ")
+                    .append(i).append("; } return t; }\n");
+        }
+        large.append("print(f1(1) + f299(2));");
+
+        ScriptEnginePool cached = new ScriptEnginePool("javascript", 1, true);
+        ScriptEnginePool uncached = new ScriptEnginePool("javascript", 1, false);
+        latency("engine per call", 20, i -> enginePerCall(SCRIPTS[i % SCRIPTS.length]));
+        latency("pooled, cached", 2000, i -> cached.evaluate(SCRIPTS[i % SCRIPTS.length]));
+        latency("pooled, uncached", 2000, i -> uncached.evaluate(SCRIPTS[i % SCRIPTS.length]));
+        latency("300 fns, cached", 200, i -> cached.evaluate(large.toString()));
+        latency("300 fns, uncached", 200, i -> uncached.evaluate(large.toString()));
+    }
+
+    private static String enginePerCall(String source) throws ScriptException {
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
+        StringWriter output = new StringWriter();
+        engine.getContext().setWriter(output);
+        engine.eval(source);
+        return output.toString();
+    }
+
+    private static void latency(String name, int calls, Call call) throws ScriptException {
+        long[] nanos = new long[calls];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < calls; i++) {
+                long start = System.nanoTime();
+                call.run(i);
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        System.out.printf("%-18s n=%5d  p50 %8.3f ms  p99 %8.3f ms%n", name, calls,
+                Measure.percentile(nanos, 50), Measure.percentile(nanos, 99));
+    }
+
+    private interface Call {
+        void run(int i) throws ScriptException;
+    }
+}
@@ -0,0 +1,91 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompiledProgram;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterProgram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs one verified program, compiled once for each engine, on 1, 2, 4 and 8 threads at once and
+// reports runs per second and how many runs printed something other than a lone run does.
+// Throughput can only grow with threads up to the core count.
+//   java edu.montana.csci.csci468.bench.SharedProgramBench [seconds per point]
+public class SharedProgramBench {
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 1.5;
+        CatScriptProgram program = new CatScriptParser().parse("var g = 0\n" +
+                "function fib(n : int) : int { if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) } }\n" +
+                "function bump(k : int) { g = g + k }\n" +
+                "for (i in [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]) { bump(i)\nprint(g) }\n" +
+                "print(fib(16))\n" +
+                "var s = \"\"\nfor (x in [1, 2, 3]) { s = s + x }\nprint(s)");
+        program.verify();
+        StatementClosure closure = program.compileClosure();
+        RegisterProgram registers = new RegisterCompiler(program).compile();
+        CompiledProgram compiled = new ByteCodeGenerator(program).compileToClass();
+
+        Map<String, Supplier<String>> engines = new LinkedHashMap<>();
+        engines.put("tree", () -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            program.execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("closure", () -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            closure.execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("vm", () -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            registers.execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("jvm", () -> {
+            CatScriptProgram instance = compiled.newInstance();
+            instance.execute();
+            return instance.getOutput();
+        });
+
+        System.out.printf("%d cores%n", Runtime.getRuntime().availableProcessors());
+        for (Map.Entry<String, Supplier<String>> engine : engines.entrySet()) {
+            String expected = engine.getValue().get();
+            for (int threads = 1; threads <= 8; threads *= 2) {
+                AtomicLong runs = new AtomicLong();
+                AtomicInteger mismatches = new AtomicInteger();
+                long start = System.nanoTime();
+                long end = start + (long) (seconds * 1e9);
+                List<Thread> workers = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    Thread worker = new Thread(() -> {
+                        while (System.nanoTime() < end) {
+                            if (!expected.equals(engine.getValue().get())) {
+                                mismatches.incrementAndGet();
+                            }
+                            runs.incrementAndGet();
+                        }
+                    });
+                    worker.start();
+                    workers.add(worker);
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                double elapsed = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%-8s %d threads  %9.0f runs/s  mismatches %d%n",
+                        engine.getKey(), threads, runs.get() / elapsed, mismatches.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+// Times parsing a script of short statements of every kind, on tokens that were scanned
+// beforehand, so that picking the statement to parse is as large a share of the time as it gets.
+// Returns and assignments, the kinds tried last by a chain of probes, make up half of them.
+//   java edu.montana.csci.csci468.bench.StatementDispatchBench [statements]
+public class StatementDispatchBench {
+
+    public static void main(String[] args) {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+        StringBuilder source = new StringBuilder("function f(a : int) : int {\n");
+        for (int i = 0; i < statements; i++) {
+            switch (i % 8) {
+                case 0: source.append("var x = a\n"); break;
+                case 1: case 2: source.append("x = a\n"); break;
+                case 3: source.append("print(x)\n"); break;
+                case 4: source.append("f(x)\n"); break;
+                case 5: source.append("if (x) { }\n"); break;
+                case 6: case 7: source.append("return x\n"); break;
+            }
+        }
+        source.append("}\n");
+        TokenList tokens = new CatScriptTokenizer(source.toString()).getTokens();
+
+        for (int round = 0; round < 5; round++) {
+            double parse = Measure.best(50, 70, () -> new CatScriptParser().parse(tokens));
+            System.out.printf("%d statements  %7.3f ms  %5.1f ns per statement%n",
+                    statements, parse, parse * 1e6 / statements);
+        }
+    }
+}
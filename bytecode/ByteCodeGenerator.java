@@ -1,12 +1,9 @@
 package edu.montana.csci.csci468.bytecode;
 
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.Symbol;
 import org.objectweb.asm.*;
-import org.objectweb.asm.util.CheckClassAdapter;
-import org.objectweb.asm.util.TraceClassVisitor;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -14,7 +11,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class ByteCodeGenerator {
 
     private static final AtomicInteger classInteger = new AtomicInteger();
-    private static final DynamicClassLoader CLASS_LOADER = new DynamicClassLoader();
 
     private ClassWriter classWriter;
     private MethodGenerator currentMethod;
@@ -29,6 +25,10 @@ public class ByteCodeGenerator {
     }
 
     public CatScriptProgram compileToBytecode() {
+        return compileToClass().newInstance();
+    }
+
+    public CompiledProgram compileToClass() {
         methodStack = new Stack<>();
         classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
         internalClassName = "edu/montana/csci/csci466/bytecode/CatScriptProgram" + classInteger.incrementAndGet();
@@ -42,8 +42,8 @@ public class ByteCodeGenerator {
 
         classWriter.visitEnd();
         byte[] classBytes = classWriter.toByteArray();
-        printClassASM(classBytes);
-        return loadClass(dotClassName, classBytes);
+        BytecodeDiagnostics.afterCompile(dotClassName, classBytes);
+        return new CompiledProgram(loadClass(dotClassName, classBytes), classBytes);
     }
 
     private void makeClass(String className) {
@@ -80,37 +80,21 @@ public class ByteCodeGenerator {
         return new MethodGenerator(method);
     }
 
-    private void printClassASM(byte[] classBytes) {
-        StringWriter writer = new StringWriter();
-        var visitor = new TraceClassVisitor(new PrintWriter(writer));
-        CheckClassAdapter checkAdapter = new CheckClassAdapter(visitor);
-        ClassReader reader = new ClassReader(classBytes);
-        reader.accept(checkAdapter, 0);
-        String decompiledTransformedClass = writer.getBuffer().toString();
-        System.out.println(" JVM Bytecode ===================================\n");
-        System.out.println(decompiledTransformedClass);
-        System.out.println("\n ================================================");
-    }
-
-    private CatScriptProgram loadClass(String dotClassName, byte[] classBytes) {
-        try {
-            CLASS_LOADER.defineClass(dotClassName, classBytes);
-            Class<?> clazz = CLASS_LOADER.loadClass(dotClassName);
-            return (CatScriptProgram) clazz.getConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    // a loader per class, a loader shared by every program would keep them all loaded forever
+    private Class<? extends CatScriptProgram> loadClass(String dotClassName, byte[] classBytes) {
+        DynamicClassLoader classLoader = new DynamicClassLoader(ByteCodeGenerator.class.getClassLoader());
+        return classLoader.defineClass(dotClassName, classBytes).asSubclass(CatScriptProgram.class);
     }
 
     public Integer nextLocalStorageSlot() {
         return currentMethod.nextLocalStorageSlot();
     }
 
-    public Integer createLocalStorageSlotFor(String name){
+    public Integer createLocalStorageSlotFor(Symbol name){
         return currentMethod.createLocalStorageSlotFor(name);
     }
 
-    public Integer resolveLocalStorageSlotFor(String name) {
+    public Integer resolveLocalStorageSlotFor(Symbol name) {
         return currentMethod.resolveLocalStorageSlotFor(name);
     }
 
@@ -119,8 +103,12 @@ public class ByteCodeGenerator {
     }
 
     static class DynamicClassLoader extends ClassLoader {
-        public void defineClass(String name, byte[] bytes) {
-            defineClass(name, bytes, 0, bytes.length);
+        DynamicClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        public Class<?> defineClass(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
         }
         @Override
         public Class<?> findClass(String name) throws ClassNotFoundException {
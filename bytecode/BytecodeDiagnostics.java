@@ -0,0 +1,99 @@
+package edu.montana.csci.csci468.bytecode;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.util.CheckClassAdapter;
+import org.objectweb.asm.util.TraceClassVisitor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// What the generator does with a class after generating it. OFF leaves it alone, VERIFY runs
+// it through ASM's checker and TRACE also disassembles it, appending the listing to a file or
+// keeping the last few in memory. Set with -Dcatscript.bytecode.diagnostics=off|verify|trace
+// and -Dcatscript.bytecode.trace.file=path, or from code.
+public class BytecodeDiagnostics {
+
+    public enum Mode {
+        OFF,
+        VERIFY,
+        TRACE
+    }
+
+    private static final int RECENT_TRACES = 16;
+
+    private static volatile Mode mode = Mode.valueOf(System.getProperty("catscript.bytecode.diagnostics", "off").toUpperCase());
+    private static volatile Path traceFile = traceFileProperty();
+    private static final ArrayDeque<String> recentTraces = new ArrayDeque<>(RECENT_TRACES);
+
+    private static Path traceFileProperty() {
+        String traceFile = System.getProperty("catscript.bytecode.trace.file");
+        return traceFile == null ? null : Paths.get(traceFile);
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode newMode) {
+        mode = newMode;
+    }
+
+    // null keeps traces in memory
+    public static void setTraceFile(Path path) {
+        traceFile = path;
+    }
+
+    public static List<String> getRecentTraces() {
+        synchronized (recentTraces) {
+            return new ArrayList<>(recentTraces);
+        }
+    }
+
+    static void afterCompile(String className, byte[] classBytes) {
+        Mode currentMode = mode;
+        if (currentMode == Mode.VERIFY) {
+            new ClassReader(classBytes).accept(new CheckClassAdapter(new ClassWriter(0)), 0);
+        } else if (currentMode == Mode.TRACE) {
+            trace(className, disassemble(classBytes));
+        }
+    }
+
+    // checks the class on the way through, a class ASM rejects throws rather than disassembling
+    static String disassemble(byte[] classBytes) {
+        StringWriter writer = new StringWriter();
+        CheckClassAdapter checkAdapter = new CheckClassAdapter(new TraceClassVisitor(new PrintWriter(writer)));
+        new ClassReader(classBytes).accept(checkAdapter, 0);
+        return writer.toString();
+    }
+
+    private static void trace(String className, String disassembly) {
+        String listing = " JVM Bytecode " + className + " ===================================\n\n" + disassembly +
+                "\n ================================================\n";
+        Path file = traceFile;
+        if (file != null) {
+            try {
+                Files.writeString(file, listing, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            synchronized (recentTraces) {
+                if (recentTraces.size() == RECENT_TRACES) {
+                    recentTraces.removeFirst();
+                }
+                recentTraces.addLast(listing);
+            }
+        }
+    }
+}
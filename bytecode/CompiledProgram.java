@@ -0,0 +1,38 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+// A generated program class along with its bytes. Each one is defined in a class loader of
+// its own, so the class is unloaded once nothing holds on to this object or its instances.
+public class CompiledProgram {
+
+    private final Class<? extends CatScriptProgram> programClass;
+    private final byte[] classBytes;
+
+    CompiledProgram(Class<? extends CatScriptProgram> programClass, byte[] classBytes) {
+        this.programClass = programClass;
+        this.classBytes = classBytes;
+    }
+
+    // generated programs keep their fields and output on the instance, so every run needs a new one
+    public CatScriptProgram newInstance() {
+        try {
+            return programClass.getConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Class<? extends CatScriptProgram> getProgramClass() {
+        return programClass;
+    }
+
+    public byte[] getClassBytes() {
+        return classBytes.clone();
+    }
+
+    // disassembled on request, whatever the diagnostics mode
+    public String getDisassembly() {
+        return BytecodeDiagnostics.disassemble(classBytes);
+    }
+}
@@ -2,28 +2,36 @@ package edu.montana.csci.csci468.bytecode;
 
 import org.objectweb.asm.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MethodGenerator implements AutoCloseable {
 
     private AtomicInteger localStorageSlot = new AtomicInteger();
-    Map<String, Integer> localStorageMap = new HashMap<>();
+    // indexed by symbol id, zero means no slot since slot zero always holds this
+    int[] localStorageSlots = new int[16];
     private final MethodVisitor delegate;
 
     public Integer nextLocalStorageSlot() {
         return localStorageSlot.incrementAndGet();
     }
 
-    public Integer createLocalStorageSlotFor(String name){
+    public Integer createLocalStorageSlotFor(Symbol name){
         int i = nextLocalStorageSlot();
-        localStorageMap.put(name, i);
+        if (name.getId() >= localStorageSlots.length) {
+            localStorageSlots = Arrays.copyOf(localStorageSlots, Math.max(name.getId() + 1, localStorageSlots.length * 2));
+        }
+        localStorageSlots[name.getId()] = i;
         return i;
     }
 
-    public Integer resolveLocalStorageSlotFor(String name) {
-        return localStorageMap.get(name);
+    public Integer resolveLocalStorageSlotFor(Symbol name) {
+        if (name.getId() < localStorageSlots.length && localStorageSlots[name.getId()] != 0) {
+            return localStorageSlots[name.getId()];
+        }
+        return null;
     }
 
     public MethodGenerator(MethodVisitor delgate) {
@@ -0,0 +1,13 @@
+package edu.montana.csci.csci468.eval;
+
+// The closure of a BOOLEAN expression, its value is only boxed when asked for as an object
+@FunctionalInterface
+public interface BooleanClosure extends ExpressionClosure {
+    @Override
+    boolean evaluateBoolean(CatscriptRuntime runtime);
+
+    @Override
+    default Object evaluate(CatscriptRuntime runtime) {
+        return evaluateBoolean(runtime);
+    }
+}
@@ -0,0 +1,32 @@
+package edu.montana.csci.csci468.eval;
+
+// Thrown out of an execution that ran past one of its ExecutionBudget limits. Nothing outside
+// the execution is left changed, so the thread that ran it can go straight on to the next.
+public class BudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Limit {
+        STEPS,
+        TIME,
+        DEPTH,
+        LIST_ELEMENTS
+    }
+
+    private final Limit limit;
+    private final long maximum;
+
+    public BudgetExceededException(Limit limit, long maximum) {
+        super("Execution budget exceeded: " + limit.name().toLowerCase() + " limit of " + maximum);
+        this.limit = limit;
+        this.maximum = maximum;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    public long getMaximum() {
+        return maximum;
+    }
+}
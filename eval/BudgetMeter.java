@@ -0,0 +1,56 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.eval.BudgetExceededException.Limit;
+
+// Charges one execution against its ExecutionBudget. A step costs an increment and a compare,
+// the clock is only read every CLOCK_INTERVAL steps.
+public class BudgetMeter {
+
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final ExecutionBudget budget;
+    private final long maxSteps;
+    private final boolean timed;
+    private final long deadline;
+    private long steps = 0;
+    private int depth = 0;
+    private long listElements = 0;
+
+    public BudgetMeter(ExecutionBudget budget) {
+        this.budget = budget;
+        this.maxSteps = budget.getMaxSteps();
+        this.timed = budget.getMaxMillis() < Long.MAX_VALUE / 1_000_000;
+        this.deadline = timed ? System.nanoTime() + budget.getMaxMillis() * 1_000_000 : 0;
+    }
+
+    public void step() {
+        if (++steps > maxSteps) {
+            throw new BudgetExceededException(Limit.STEPS, maxSteps);
+        }
+        if (timed && (steps & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() - deadline > 0) {
+            throw new BudgetExceededException(Limit.TIME, budget.getMaxMillis());
+        }
+    }
+
+    public void enterCall() {
+        step();
+        if (++depth > budget.getMaxDepth()) {
+            throw new BudgetExceededException(Limit.DEPTH, budget.getMaxDepth());
+        }
+    }
+
+    public void exitCall() {
+        depth--;
+    }
+
+    public void allocateList(int size) {
+        listElements += size;
+        if (listElements > budget.getMaxListElements()) {
+            throw new BudgetExceededException(Limit.LIST_ELEMENTS, budget.getMaxListElements());
+        }
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+}
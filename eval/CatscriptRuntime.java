@@ -1,46 +1,115 @@
 package edu.montana.csci.csci468.eval;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
-
-// TODO - implement proper scoping
+// Variables live in frames indexed by the slots ScopeResolver hands out. The program's
+// globals are one frame and each function call gets a fresh one, depth 0 is the frame
+// currently executing and depth 1 the globals.
 public class CatscriptRuntime {
-    LinkedList<Map<String, Object>> scopes = new LinkedList<>();
+    private Object[] globals = new Object[0];
+    private Object[] locals = globals;
+    // kept per execution so that one parsed program can be run any number of times, from any
+    // number of threads
+    private final OutputSink output;
+    private final BudgetMeter meter;
+    // set by a return statement, blocks stop executing until the function call takes the value
+    private boolean returning = false;
+    private Object returnValue;
 
-    public CatscriptRuntime(){
-        HashMap<String, Object> globalScope = new HashMap<>();
-        scopes.push(globalScope);
+    public CatscriptRuntime() {
+        this(new StringOutputSink());
     }
 
-    public Object getValue(String name) {
-        Iterator<Map<String, Object>> mapIterator = scopes.descendingIterator();
-        while (mapIterator.hasNext()) {
-            Map<String, Object> scope = mapIterator.next();
-            if (scope.containsKey(name)) {
-                return scope.get(name);
-            }
-        }
-        return null;
+    public CatscriptRuntime(OutputSink output) {
+        this(output, new BudgetMeter(ExecutionBudget.UNLIMITED));
     }
 
-    public void setValue(String variableName, Object val) {
-        for (Map<String, Object> scope : scopes) {
-            if (scope.containsKey(variableName)) {
-                scope.put(variableName, val);
-                return;
-            }
+    public CatscriptRuntime(OutputSink output, BudgetMeter meter) {
+        this.output = output;
+        this.meter = meter;
+    }
+
+    public void allocateGlobals(int size) {
+        globals = new Object[size];
+        locals = globals;
+    }
+
+    public Object getValue(int depth, int slot) {
+        return depth == 0 ? locals[slot] : globals[slot];
+    }
+
+    public void setValue(int depth, int slot, Object val) {
+        if (depth == 0) {
+            locals[slot] = val;
+        } else {
+            globals[slot] = val;
         }
-        scopes.peekLast().put(variableName, val);
     }
 
-    public void pushScope() {
-        scopes.push(new HashMap<>());
+    // returns the caller's frame, to be handed back to popFrame
+    public Object[] pushFrame(int size) {
+        Object[] callerFrame = locals;
+        locals = new Object[size];
+        return callerFrame;
     }
 
-    public void popScope() {
-        scopes.pop();
+    public void popFrame(Object[] callerFrame) {
+        locals = callerFrame;
+    }
+
+    // loops charge a step at the end of every iteration, calls charge one on the way in
+    public void step() {
+        meter.step();
+    }
+
+    public void enterCall() {
+        meter.enterCall();
+    }
+
+    public void exitCall() {
+        meter.exitCall();
+    }
+
+    public void allocateList(int size) {
+        meter.allocateList(size);
+    }
+
+    public void setReturnValue(Object value) {
+        returnValue = value;
+        returning = true;
+    }
+
+    public boolean isReturning() {
+        return returning;
+    }
+
+    public Object takeReturnValue() {
+        Object value = returnValue;
+        returnValue = null;
+        returning = false;
+        return value;
+    }
+
+    public void print(Object value) {
+        output.print(String.valueOf(value));
+    }
+
+    public void print(int value) {
+        output.print(Integer.toString(value));
+    }
+
+    public void print(boolean value) {
+        output.print(Boolean.toString(value));
+    }
+
+    public OutputSink getOutputSink() {
+        return output;
+    }
+
+    // only a runtime collecting its output has it to give back
+    public String getOutput() {
+        if (!(output instanceof StringOutputSink)) {
+            throw new IllegalStateException("Output was written to " + output.getClass().getSimpleName());
+        }
+        return output.toString();
     }
 
 }
@@ -0,0 +1,52 @@
+package edu.montana.csci.csci468.eval;
+
+// Limits on a single execution of a program. Steps are loop iterations and function calls,
+// the only things that let a program run for longer than its source is long, so every engine
+// counts them the same way. List elements are counted across every list the run allocates.
+// The server's budget comes from -Dcatscript.budget.steps, .millis, .depth and .listElements.
+public class ExecutionBudget {
+
+    public static final ExecutionBudget UNLIMITED = new ExecutionBudget(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long maxSteps;
+    private final long maxMillis;
+    private final int maxDepth;
+    private final long maxListElements;
+
+    public ExecutionBudget(long maxSteps, long maxMillis, int maxDepth, long maxListElements) {
+        this.maxSteps = maxSteps;
+        this.maxMillis = maxMillis;
+        this.maxDepth = maxDepth;
+        this.maxListElements = maxListElements;
+    }
+
+    // sized so that a runaway script gives its worker thread back within a few seconds
+    public static ExecutionBudget fromSystemProperties() {
+        return new ExecutionBudget(
+                Long.getLong("catscript.budget.steps", 50_000_000L),
+                Long.getLong("catscript.budget.millis", 5_000L),
+                Integer.getInteger("catscript.budget.depth", 1_000),
+                Long.getLong("catscript.budget.listElements", 10_000_000L));
+    }
+
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxListElements() {
+        return maxListElements;
+    }
+
+    @Override
+    public String toString() {
+        return "steps=" + maxSteps + " millis=" + maxMillis + " depth=" + maxDepth + " listElements=" + maxListElements;
+    }
+}
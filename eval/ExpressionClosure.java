@@ -0,0 +1,17 @@
+package edu.montana.csci.csci468.eval;
+
+// An expression compiled ahead of time, see Expression.compileClosure
+@FunctionalInterface
+public interface ExpressionClosure {
+    Object evaluate(CatscriptRuntime runtime);
+
+    // typed entry points, the closures of INT and BOOLEAN nodes are IntClosures and
+    // BooleanClosures, which pass their values along unboxed
+    default int evaluateInt(CatscriptRuntime runtime) {
+        return (Integer) evaluate(runtime);
+    }
+
+    default boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return (Boolean) evaluate(runtime);
+    }
+}
@@ -0,0 +1,13 @@
+package edu.montana.csci.csci468.eval;
+
+// The closure of an INT expression, its value is only boxed when asked for as an object
+@FunctionalInterface
+public interface IntClosure extends ExpressionClosure {
+    @Override
+    int evaluateInt(CatscriptRuntime runtime);
+
+    @Override
+    default Object evaluate(CatscriptRuntime runtime) {
+        return evaluateInt(runtime);
+    }
+}
@@ -0,0 +1,11 @@
+package edu.montana.csci.csci468.eval;
+
+// Where a program's print statements go, one line per print. A run collects its output in a
+// StringOutputSink unless it is given somewhere else to write, see WriterOutputSink.
+public interface OutputSink {
+
+    void print(String line);
+
+    default void flush() {
+    }
+}
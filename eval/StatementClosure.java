@@ -0,0 +1,7 @@
+package edu.montana.csci.csci468.eval;
+
+// A statement compiled ahead of time, see Statement.compileClosure
+@FunctionalInterface
+public interface StatementClosure {
+    void execute(CatscriptRuntime runtime);
+}
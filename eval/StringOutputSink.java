@@ -0,0 +1,17 @@
+package edu.montana.csci.csci468.eval;
+
+// Keeps the whole output in memory, for callers that want it as one string at the end
+public class StringOutputSink implements OutputSink {
+
+    private final StringBuilder output = new StringBuilder();
+
+    @Override
+    public void print(String line) {
+        output.append(line).append("\n");
+    }
+
+    @Override
+    public String toString() {
+        return output.toString();
+    }
+}
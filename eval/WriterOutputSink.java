@@ -0,0 +1,57 @@
+package edu.montana.csci.csci468.eval;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// Writes output through a fixed size buffer, handing it to the writer each time it fills. A
+// writer that can't keep up, a socket to a slow client say, blocks the print until it can, so
+// memory stays bounded by the buffer however much the program prints. A failed write, usually
+// the client going away, ends the run with an UncheckedIOException.
+public class WriterOutputSink implements OutputSink {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+    private final char[] buffer;
+    private int length = 0;
+
+    public WriterOutputSink(Writer writer) {
+        this(writer, DEFAULT_BUFFER_SIZE);
+    }
+
+    public WriterOutputSink(Writer writer, int bufferSize) {
+        this.writer = writer;
+        this.buffer = new char[bufferSize];
+    }
+
+    @Override
+    public void print(String line) {
+        append(line);
+        append("\n");
+    }
+
+    private void append(String text) {
+        int offset = 0;
+        while (offset < text.length()) {
+            if (length == buffer.length) {
+                flush();
+            }
+            int count = Math.min(buffer.length - length, text.length() - offset);
+            text.getChars(offset, offset + count, buffer, length);
+            length += count;
+            offset += count;
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.write(buffer, 0, length);
+            writer.flush();
+            length = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
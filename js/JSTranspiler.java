@@ -2,14 +2,16 @@ package edu.montana.csci.csci468.js;
 
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 
-import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
-import java.io.StringWriter;
 
 public class JSTranspiler {
 
+    // -Dcatscript.js.engines sizes the pool. Nashorn already keeps the classes it compiles for a
+    // source, so keeping compiled scripts as well, -Dcatscript.js.cacheScripts=true, is for other engines
+    private static final ScriptEnginePool ENGINES = new ScriptEnginePool("javascript",
+            Integer.getInteger("catscript.js.engines", Runtime.getRuntime().availableProcessors()),
+            Boolean.getBoolean("catscript.js.cacheScripts"));
+
     private final CatScriptProgram program;
     private final String javascriptSource;
 
@@ -20,12 +22,7 @@ public class JSTranspiler {
 
     public String evaluate() {
         try {
-            ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
-            ScriptContext context = engine.getContext();
-            StringWriter writer = new StringWriter();
-            context.setWriter(writer);
-            engine.eval(javascriptSource);
-            return writer.toString();
+            return ENGINES.evaluate(javascriptSource);
         } catch (ScriptException e) {
             return e.getMessage();
         }
@@ -0,0 +1,113 @@
+package edu.montana.csci.csci468.js;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Script engines kept around for running transpiled programs, finding and starting an engine
+// takes far longer than most programs take to run. Engines are created as they are first needed,
+// up to maxEngines, and each one is used by a single thread at a time. Every evaluation gets fresh
+// bindings and its own writer, so nothing one script defines or prints is seen by the next.
+// Engines that can compile keep their most recently run scripts compiled, keyed by source.
+public class ScriptEnginePool {
+
+    private static final int COMPILED_SCRIPTS_PER_ENGINE = 256;
+
+    private final String engineName;
+    private final int maxEngines;
+    private final boolean cacheCompiledScripts;
+    private final BlockingQueue<PooledEngine> idle;
+    private int created = 0;
+    private boolean unavailable = false;
+
+    public ScriptEnginePool(String engineName, int maxEngines, boolean cacheCompiledScripts) {
+        this.engineName = engineName;
+        this.maxEngines = maxEngines;
+        this.cacheCompiledScripts = cacheCompiledScripts;
+        this.idle = new ArrayBlockingQueue<>(maxEngines);
+    }
+
+    // runs the script, returning what it printed
+    public String evaluate(String source) throws ScriptException {
+        PooledEngine engine = acquire();
+        try {
+            return engine.evaluate(source);
+        } finally {
+            idle.add(engine);
+        }
+    }
+
+    private PooledEngine acquire() throws ScriptException {
+        PooledEngine engine = idle.poll();
+        if (engine != null) {
+            return engine;
+        }
+        synchronized (this) {
+            if (unavailable) {
+                throw new ScriptException("No " + engineName + " script engine is available");
+            }
+            if (created < maxEngines) {
+                ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByName(engineName);
+                if (scriptEngine == null) {
+                    // remembered, looking again would only repeat the slow search
+                    unavailable = true;
+                    throw new ScriptException("No " + engineName + " script engine is available");
+                }
+                created++;
+                return new PooledEngine(scriptEngine, cacheCompiledScripts && scriptEngine instanceof Compilable);
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptException("Interrupted waiting for a " + engineName + " script engine");
+        }
+    }
+
+    public synchronized int getCreated() {
+        return created;
+    }
+
+    private static class PooledEngine {
+        private final ScriptEngine engine;
+        private final Map<String, CompiledScript> compiledScripts;
+
+        PooledEngine(ScriptEngine engine, boolean cacheCompiledScripts) {
+            this.engine = engine;
+            this.compiledScripts = cacheCompiledScripts ? new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                    return size() > COMPILED_SCRIPTS_PER_ENGINE;
+                }
+            } : null;
+        }
+
+        String evaluate(String source) throws ScriptException {
+            StringWriter writer = new StringWriter();
+            ScriptContext context = new SimpleScriptContext();
+            context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+            context.setWriter(writer);
+            if (compiledScripts == null) {
+                engine.eval(source, context);
+            } else {
+                CompiledScript script = compiledScripts.get(source);
+                if (script == null) {
+                    script = ((Compilable) engine).compile(source);
+                    compiledScripts.put(source, script);
+                }
+                script.eval(context);
+            }
+            return writer.toString();
+        }
+    }
+}
@@ -3,13 +3,13 @@ package edu.montana.csci.csci468.parser;
 import edu.montana.csci.csci468.parser.expressions.*;
 import edu.montana.csci.csci468.parser.statements.*;
 import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.CharSource;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenList;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.apache.commons.lang.ObjectUtils;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -17,34 +17,119 @@ import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class CatScriptParser {
 
+    private static final int EQUALITY_PRECEDENCE = 1;
+    private static final int COMPARISON_PRECEDENCE = 2;
+    private static final int ADDITIVE_PRECEDENCE = 3;
+    private static final int FACTOR_PRECEDENCE = 4;
+    // binding strength of each binary operator by token type ordinal, zero for everything else
+    private static final int[] BINARY_PRECEDENCE = new int[TokenType.values().length];
+
+    static {
+        BINARY_PRECEDENCE[EQUAL_EQUAL.ordinal()] = EQUALITY_PRECEDENCE;
+        BINARY_PRECEDENCE[BANG_EQUAL.ordinal()] = EQUALITY_PRECEDENCE;
+        BINARY_PRECEDENCE[GREATER.ordinal()] = COMPARISON_PRECEDENCE;
+        BINARY_PRECEDENCE[GREATER_EQUAL.ordinal()] = COMPARISON_PRECEDENCE;
+        BINARY_PRECEDENCE[LESS.ordinal()] = COMPARISON_PRECEDENCE;
+        BINARY_PRECEDENCE[LESS_EQUAL.ordinal()] = COMPARISON_PRECEDENCE;
+        BINARY_PRECEDENCE[PLUS.ordinal()] = ADDITIVE_PRECEDENCE;
+        BINARY_PRECEDENCE[MINUS.ordinal()] = ADDITIVE_PRECEDENCE;
+        BINARY_PRECEDENCE[STAR.ordinal()] = FACTOR_PRECEDENCE;
+        BINARY_PRECEDENCE[SLASH.ordinal()] = FACTOR_PRECEDENCE;
+    }
+
+    // errors after the first few in a region are almost always knock on effects of the first
+    private static final int MAX_ERRORS_PER_REGION = 3;
+
     private TokenList tokens;
     private FunctionDefinitionStatement currentFunctionDefinition;
+    // syntax errors reported since the parser last started a statement
+    private int regionErrors = 0;
+    // where the last syntax error was reported, a parse that stops at a bad token (often EOF)
+    // would otherwise report it again from every rule that was waiting on it
+    private int lastErrorStart = -1;
 
     public CatScriptProgram parse(String source) {
-        tokens = new CatScriptTokenizer(source).getTokens();
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
+
+    public CatScriptProgram parse(CharSource source) {
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
+
+    public CatScriptProgram parse(TokenList tokenList) {
+        tokens = tokenList;
+        tokens.reset();
+        regionErrors = 0;
+        lastErrorStart = -1;
 
-        // first parse an expression
         CatScriptProgram program = new CatScriptProgram();
         program.setStart(tokens.getCurrentToken());
-        Expression expression = null;
-        try {
-            expression = parseExpression();
-        } catch(RuntimeException re) {
-            // ignore :)
-        }
-        if (expression == null || tokens.hasMoreTokens()) {
-            tokens.reset();
-            while (tokens.hasMoreTokens()) {
-                program.addStatement(parseProgramStatement());
-            }
+        if (startsStatementProgram()) {
+            parseProgramStatements(program);
         } else {
-            program.setExpression(expression);
+            // everything else opens with an expression, which is the whole program when it runs
+            // to the end and otherwise the first statement
+            Expression expression = parseExpression();
+            if (!tokens.hasMoreTokens()) {
+                program.setExpression(expression);
+            } else {
+                program.addStatement(statementFrom(expression));
+                parseProgramStatements(program);
+            }
         }
 
         program.setEnd(tokens.getCurrentToken());
         return program;
     }
 
+    // decides from the first two tokens whether the input can only be parsed as statements
+    private boolean startsStatementProgram() {
+        switch (tokens.getType(0)) {
+            case IDENTIFIER:
+                return tokens.getType(1) == EQUAL;
+            case INTEGER:
+            case STRING:
+            case NULL:
+            case TRUE:
+            case FALSE:
+            case LEFT_BRACKET:
+            case LEFT_PAREN:
+            case MINUS:
+            case NOT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // the first statement of a program that opened with an expression and kept going, only a
+    // function call is a statement on its own, anything else is an error up to the next statement
+    private Statement statementFrom(Expression expression) {
+        if (expression instanceof FunctionCallExpression) {
+            FunctionCallStatement functionCallStatement = new FunctionCallStatement((FunctionCallExpression) expression);
+            functionCallStatement.setStart(expression.getStart());
+            functionCallStatement.setEnd(tokens.lastToken());
+            return functionCallStatement;
+        }
+        // errors inside the expression go with it, the one at its start is what a statement reports
+        regionErrors = 0;
+        lastErrorStart = -1;
+        SyntaxErrorStatement syntaxErrorStatement = new SyntaxErrorStatement(expression.getStart());
+        reportError(syntaxErrorStatement, ErrorType.UNEXPECTED_TOKEN, expression.getStart());
+        while (!atStatementStart()) {
+            tokens.consumeToken();
+        }
+        syntaxErrorStatement.setEnd(tokens.lastToken());
+        return syntaxErrorStatement;
+    }
+
+    private void parseProgramStatements(CatScriptProgram program) {
+        while (tokens.hasMoreTokens()) {
+            program.addStatement(parseProgramStatement());
+            tokens.discardConsumed();
+        }
+    }
+
     public CatScriptProgram parseAsExpression(String source) {
         tokens = new CatScriptTokenizer(source).getTokens();
         CatScriptProgram program = new CatScriptProgram();
@@ -94,12 +179,61 @@ public class CatScriptParser {
         if(statement != null) {
             return statement;
         }
-        return new SyntaxErrorStatement(tokens.consumeToken());
+        return skipToStatementStart();
     }
 
-    private Statement parsePrintStatement() {
-        if(tokens.match(PRINT)){
+    // true when the current token opens a statement of the given kind, which starts a new
+    // region for error reporting
+    private boolean startsStatement(TokenType type) {
+        if (tokens.match(type)) {
+            regionErrors = 0;
+            return true;
+        }
+        return false;
+    }
 
+    // panic mode recovery, everything up to the next token that can start a statement becomes one
+    // error node; it only reports an error when the statement before it left the tokens without one
+    private Statement skipToStatementStart() {
+        Token start = tokens.getCurrentToken();
+        SyntaxErrorStatement syntaxErrorStatement = new SyntaxErrorStatement(start);
+        if (regionErrors == 0) {
+            reportError(syntaxErrorStatement, ErrorType.UNEXPECTED_TOKEN, start);
+        }
+        if (!tokens.match(EOF)) {
+            tokens.consumeToken();
+            while (!atStatementStart()) {
+                tokens.consumeToken();
+            }
+            syntaxErrorStatement.setEnd(tokens.lastToken());
+        }
+        return syntaxErrorStatement;
+    }
+
+    private boolean atStatementStart() {
+        switch (tokens.getCurrentType()) {
+            case VAR:
+            case PRINT:
+            case FOR:
+            case IF:
+            case FUNCTION:
+            case RETURN:
+            case RIGHT_BRACE:
+            case EOF:
+                return true;
+            case IDENTIFIER:
+                // identifiers show up in expressions too, only trust one that
+                // opens a line and looks like an assignment or a call
+                TokenType next = tokens.lookAhead(1);
+                return (next == EQUAL || next == LEFT_PAREN) &&
+                        tokens.getCurrentToken().getLine() > tokens.lastToken().getLine();
+            default:
+                return false;
+        }
+    }
+
+    private Statement parsePrintStatement() {
+        if (startsStatement(PRINT)) {
             PrintStatement printStatement = new PrintStatement();
             printStatement.setStart(tokens.consumeToken());
 
@@ -108,22 +242,21 @@ public class CatScriptParser {
             printStatement.setEnd(require(RIGHT_PAREN, printStatement));
 
             return printStatement;
-        } else {
-            return null;
         }
+        return null;
     }
 
     private Statement parseForStatement(){
-        if(tokens.match(FOR)){
+        if (startsStatement(FOR)) {
             ForStatement forStatement = new ForStatement();
             forStatement.setStart(tokens.consumeToken());
             require(LEFT_PAREN, forStatement);
-            forStatement.setVariableName(tokens.consumeToken().getStringValue());
+            forStatement.setVariableName(require(IDENTIFIER, forStatement).getSymbol());
             require(IN, forStatement);
             forStatement.setExpression(parseExpression());
             require(RIGHT_PAREN, forStatement);
             require(LEFT_BRACE, forStatement);
-            List<Statement> body = new LinkedList<>();
+            List<Statement> body = new ArrayList<>();
             while(!tokens.match(RIGHT_BRACE) && tokens.hasMoreTokens()){
                 body.add(parseStatement());
             }
@@ -136,8 +269,8 @@ public class CatScriptParser {
 
 
     private Statement parseIfStatement(){
-        //Handle initial IF
-        if(tokens.match(IF)){
+        if (startsStatement(IF)) {
+            //Handle initial IF
             IfStatement ifStatement = new IfStatement();
             ifStatement.setStart(tokens.consumeToken());
             require(LEFT_PAREN, ifStatement);
@@ -145,7 +278,7 @@ public class CatScriptParser {
             ifStatement.setExpression(parsedBool);
             require(RIGHT_PAREN, ifStatement);
             require(LEFT_BRACE, ifStatement);
-            List<Statement> statements = new LinkedList<>();
+            List<Statement> statements = new ArrayList<>();
             while(!tokens.match(RIGHT_BRACE)){
                 statements.add(parseStatement());
                 if(tokens.match(EOF)){
@@ -159,7 +292,7 @@ public class CatScriptParser {
                 tokens.consumeToken();
                 require(LEFT_BRACE, ifStatement);
                 if(tokens.match(EOF)){
-                    ifStatement.addError(ErrorType.UNTERMINATED_ARG_LIST);
+                    reportError(ifStatement, ErrorType.UNTERMINATED_ARG_LIST, ifStatement.getStart());
                     return ifStatement;
                 }
                 //checks to see for else if case and parses
@@ -168,10 +301,10 @@ public class CatScriptParser {
                 }
                 else {
                     if(tokens.match(EOF)){
-                        ifStatement.addError(ErrorType.UNTERMINATED_ARG_LIST);
+                        reportError(ifStatement, ErrorType.UNTERMINATED_ARG_LIST, ifStatement.getStart());
                     }
                     //collect else
-                    List<Statement> elseStatements = new LinkedList<>();
+                    List<Statement> elseStatements = new ArrayList<>();
                     while(!tokens.match(RIGHT_BRACE)){
                         elseStatements.add(parseStatement());
                         if(tokens.match(EOF)){
@@ -188,11 +321,11 @@ public class CatScriptParser {
     }
 
     private Statement parseVarStatement(){
-        if (tokens.match(VAR)){
+        if (startsStatement(VAR)) {
             VariableStatement variableStatement = new VariableStatement();
             variableStatement.setStart(tokens.consumeToken());
             final Token tokenName = require(IDENTIFIER, variableStatement);
-            variableStatement.setVariableName(tokenName.getStringValue());
+            variableStatement.setVariableName(tokenName.getSymbol());
             if (tokens.matchAndConsume(COLON)){
                 TypeLiteral typeLiteral = parseTypeLiteral();
                 variableStatement.setExplicitType(typeLiteral.getType());
@@ -205,43 +338,42 @@ public class CatScriptParser {
     }
 
     private Statement parseAssignmentOrFunctionCall(){
-        //first part handles assigment
-        if(tokens.match(IDENTIFIER)){
+        if (startsStatement(IDENTIFIER)) {
+            //first part handles assigment
             Token start = tokens.consumeToken();
             if(tokens.match(EQUAL)){
                 tokens.consumeToken();
 
                 final AssignmentStatement assignmentStatement = new AssignmentStatement();
                 assignmentStatement.setStart(start);
-                assignmentStatement.setVariableName(start.getStringValue());
+                assignmentStatement.setVariableName(start.getSymbol());
                 assignmentStatement.setExpression(parseExpression());
                 assignmentStatement.setEnd(tokens.lastToken());
 
                 return assignmentStatement;
                 //function call part
-            }else if (tokens.matchAndConsume(LEFT_PAREN)){
+            }else if (tokens.match(LEFT_PAREN)){
                 FunctionCallExpression expression = (FunctionCallExpression) parseFunctionCallExpression(start);
                 final FunctionCallStatement functionCallStatement = new FunctionCallStatement(expression);
                 functionCallStatement.setStart(start);
                 functionCallStatement.setEnd(tokens.lastToken());
                 return functionCallStatement;
             }else {
-                return new SyntaxErrorStatement(tokens.consumeToken());
+                return skipToStatementStart();
             }
-        } else {
-            return null;
         }
+        return null;
     }
 
     //Done during lecture
     private FunctionDefinitionStatement parseFunctionDefinition() {
-        if (tokens.match(FUNCTION)) {
+        if (startsStatement(FUNCTION)) {
             FunctionDefinitionStatement func = new FunctionDefinitionStatement();
             func.setStart(tokens.consumeToken());
 
             Token functionName = require(IDENTIFIER, func);
 
-            func.setName(functionName.getStringValue());
+            func.setName(functionName.getSymbol());
 
             require(LEFT_PAREN, func);
             if (!tokens.match(RIGHT_PAREN)) {
@@ -251,7 +383,7 @@ public class CatScriptParser {
                     if (tokens.matchAndConsume(COLON)) {
                         typeLiteral = parseTypeLiteral();
                     }
-                    func.addParameter(paramName.getStringValue(), typeLiteral);
+                    func.addParameter(paramName.getSymbol(), typeLiteral);
                 } while (tokens.matchAndConsume(COMMA));
             }
             require(RIGHT_PAREN, func);
@@ -265,7 +397,7 @@ public class CatScriptParser {
             currentFunctionDefinition = func;
 
             require(LEFT_BRACE, func);
-            LinkedList<Statement> statements = new LinkedList<>();
+            List<Statement> statements = new ArrayList<>();
 
             while (!tokens.match(RIGHT_BRACE) && tokens.hasMoreTokens()) {
                 statements.add(parseStatement());
@@ -276,13 +408,12 @@ public class CatScriptParser {
             func.setBody(statements);
 
             return func;
-        } else {
-            return null;
         }
+        return null;
     }
 
     private Statement parseReturnStatement() {
-        if (tokens.match(RETURN)){
+        if (startsStatement(RETURN)) {
             ReturnStatement returnStatement = new ReturnStatement();
             returnStatement.setFunctionDefinition(this.currentFunctionDefinition);
             returnStatement.setStart(tokens.consumeToken());
@@ -292,9 +423,8 @@ public class CatScriptParser {
             }
             returnStatement.setEnd(tokens.lastToken());
             return returnStatement;
-        } else {
-            return null;
         }
+        return null;
     }
 
     // Done during lecture
@@ -336,8 +466,8 @@ public class CatScriptParser {
         }
         TypeLiteral typeLiteral = new TypeLiteral();
         typeLiteral.setType(CatscriptType.OBJECT);
-        typeLiteral.setToken(tokens.consumeToken());
-        typeLiteral.addError(ErrorType.BAD_TYPE_NAME);
+        typeLiteral.setToken(tokens.match(EOF) ? tokens.getCurrentToken() : tokens.consumeToken());
+        reportError(typeLiteral, ErrorType.BAD_TYPE_NAME, typeLiteral.getStart());
         return typeLiteral;
     }
 
@@ -351,73 +481,55 @@ public class CatScriptParser {
     //============================================================
 
     private Expression parseExpression() {
-
-        return parseEqualityExpression();
-
-    }
-
-    private Expression parseEqualityExpression() {
-        Expression expression = parseComparisonExpression();
-        while (tokens.match(EQUAL_EQUAL, BANG_EQUAL)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseComparisonExpression();
-            EqualityExpression equalityExpression = new EqualityExpression(operator, expression, rightHandSide);
-            equalityExpression.setStart(expression.getStart());
-            equalityExpression.setEnd(rightHandSide.getEnd());
-            expression = equalityExpression;
-        }
-        return expression;
+        return parseBinaryExpression(EQUALITY_PRECEDENCE);
     }
 
-    private Expression parseComparisonExpression() {
-        Expression expression = parseAdditiveExpression();
-        while (tokens.match(GREATER, GREATER_EQUAL, LESS, LESS_EQUAL)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseAdditiveExpression();
-            ComparisonExpression comparisonExpression = new ComparisonExpression(operator, expression, rightHandSide);
-            comparisonExpression.setStart(expression.getStart());
-            comparisonExpression.setEnd(rightHandSide.getEnd());
-            expression = comparisonExpression;
-        }
-        return expression;
-    }
-    private Expression parseAdditiveExpression() {
-        Expression expression = parseFactorExpression();
-        while (tokens.match(PLUS, MINUS)) {
+    // precedence climbing, only recurses to read a right hand side that binds tighter, so
+    // long chains of operators are built in the loop rather than on the stack
+    private Expression parseBinaryExpression(int minimumPrecedence) {
+        Expression expression = parseUnaryExpression();
+        int precedence;
+        while ((precedence = BINARY_PRECEDENCE[tokens.getCurrentType().ordinal()]) >= minimumPrecedence) {
             Token operator = tokens.consumeToken();
-            Expression rightHandSide = parseFactorExpression();
-            AdditiveExpression additiveExpression = new AdditiveExpression(operator, expression, rightHandSide);
-            additiveExpression.setStart(expression.getStart());
-            additiveExpression.setEnd(rightHandSide.getEnd());
-            expression = additiveExpression;
+            Expression rightHandSide = parseBinaryExpression(precedence + 1);
+            Expression binaryExpression = makeBinaryExpression(operator, expression, rightHandSide);
+            binaryExpression.setStart(expression.getStart());
+            binaryExpression.setEnd(rightHandSide.getEnd());
+            expression = binaryExpression;
         }
         return expression;
     }
 
-    private Expression parseFactorExpression() {
-        Expression expression = parseUnaryExpression();
-        while (tokens.match(STAR, SLASH)) {
-            Token operator = tokens.consumeToken();
-            Expression rightHandSide = parseUnaryExpression();
-            FactorExpression factorExpression = new FactorExpression(operator, expression, rightHandSide);
-            factorExpression.setStart(expression.getStart());
-            factorExpression.setEnd(rightHandSide.getEnd());
-            expression = factorExpression;
+    private Expression makeBinaryExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
+        switch (BINARY_PRECEDENCE[operator.getType().ordinal()]) {
+            case EQUALITY_PRECEDENCE:
+                return new EqualityExpression(operator, leftHandSide, rightHandSide);
+            case COMPARISON_PRECEDENCE:
+                return new ComparisonExpression(operator, leftHandSide, rightHandSide);
+            case ADDITIVE_PRECEDENCE:
+                return new AdditiveExpression(operator, leftHandSide, rightHandSide);
+            default:
+                return new FactorExpression(operator, leftHandSide, rightHandSide);
         }
-        return expression;
     }
 
     private Expression parseUnaryExpression() {
-        if (tokens.match(MINUS, NOT)) {
-            Token token = tokens.consumeToken();
-            Expression rhs = parseUnaryExpression();
-            UnaryExpression unaryExpression = new UnaryExpression(token, rhs);
-            unaryExpression.setStart(token);
-            unaryExpression.setEnd(rhs.getEnd());
-            return unaryExpression;
-        } else {
+        if (!tokens.match(MINUS, NOT)) {
             return parsePrimaryExpression();
         }
+        List<Token> operators = new ArrayList<>();
+        while (tokens.match(MINUS, NOT)) {
+            operators.add(tokens.consumeToken());
+        }
+        Expression expression = parsePrimaryExpression();
+        for (int i = operators.size() - 1; i >= 0; i--) {
+            Token token = operators.get(i);
+            UnaryExpression unaryExpression = new UnaryExpression(token, expression);
+            unaryExpression.setStart(token);
+            unaryExpression.setEnd(expression.getEnd());
+            expression = unaryExpression;
+        }
+        return expression;
     }
 
     private Expression parsePrimaryExpression(){
@@ -441,7 +553,7 @@ public class CatScriptParser {
                 if (tokens.match(LEFT_PAREN)){
                     return parseFunctionCallExpression(identifierToken);
                 } else {
-                    IdentifierExpression identifierExpression = new IdentifierExpression(identifierToken.getStringValue());
+                    IdentifierExpression identifierExpression = new IdentifierExpression(identifierToken.getSymbol());
                     identifierExpression.setToken(identifierToken);
                     return identifierExpression;
                 }
@@ -457,7 +569,7 @@ public class CatScriptParser {
             return falseExpression;
         } else if (tokens.match(LEFT_BRACKET)) {
             Token start = tokens.consumeToken();
-            List<Expression> contents = new LinkedList<>();
+            List<Expression> contents = new ArrayList<>();
             if(!tokens.match(RIGHT_BRACKET)){
                 do {
                     contents.add(parseExpression());
@@ -475,20 +587,22 @@ public class CatScriptParser {
                 parenthesizedExpression.setEnd(tokens.consumeToken());
             } else {
                 parenthesizedExpression.setEnd(tokens.getCurrentToken());
-                parenthesizedExpression.addError(ErrorType.UNTERMINATED_LIST);
+                reportError(parenthesizedExpression, ErrorType.UNTERMINATED_LIST, start);
             }
             return parenthesizedExpression;
         } else {
-
-            SyntaxErrorExpression syntaxErrorExpression = new SyntaxErrorExpression(tokens.consumeToken());
-            syntaxErrorExpression.setToken(tokens.consumeToken());
+            // the end of input and the start of the next statement are left for whatever
+            // encloses the expression to report and recover from
+            Token token = atStatementStart() ? tokens.getCurrentToken() : tokens.consumeToken();
+            SyntaxErrorExpression syntaxErrorExpression = new SyntaxErrorExpression(token);
+            reportError(syntaxErrorExpression, ErrorType.UNEXPECTED_TOKEN, token);
             return syntaxErrorExpression;
         }
     }
 
 
     private Expression parseFunctionCallExpression(Token start) {
-        List<Expression> values = new LinkedList<>();
+        List<Expression> values = new ArrayList<>();
         tokens.matchAndConsume(LEFT_PAREN);
         if (!tokens.match(RIGHT_PAREN)) {
             do {
@@ -497,7 +611,7 @@ public class CatScriptParser {
 
             } while (tokens.matchAndConsume(COMMA) && tokens.hasMoreTokens());
         }
-        FunctionCallExpression expr = new FunctionCallExpression(start.getStringValue(), values);
+        FunctionCallExpression expr = new FunctionCallExpression(start.getSymbol(), values);
         expr.setStart(start);
         expr.setEnd(require(RIGHT_PAREN, expr, ErrorType.UNTERMINATED_ARG_LIST));
         return expr;
@@ -518,9 +632,20 @@ public class CatScriptParser {
         if(tokens.match(type)){
             return tokens.consumeToken();
         } else {
-            elt.addError(msg, tokens.getCurrentToken());
+            reportError(elt, msg, tokens.getCurrentToken());
             return tokens.getCurrentToken();
         }
     }
 
+    private void reportError(ParseElement elt, ErrorType errorType, Token token) {
+        if (token.getStart() == lastErrorStart) {
+            return;
+        }
+        lastErrorStart = token.getStart();
+        if (regionErrors < MAX_ERRORS_PER_REGION) {
+            elt.addError(errorType, token);
+        }
+        regionErrors++;
+    }
+
 }
@@ -1,9 +1,9 @@
 package edu.montana.csci.csci468.parser;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CatscriptType {
 
@@ -33,18 +33,10 @@ public class CatscriptType {
         return false;
     }
 
-    // memoize
-    private static Map<CatscriptType, ListType> cache = new HashMap<>();
+    // memoize, programs are verified on many threads at once
+    private static Map<CatscriptType, ListType> cache = new ConcurrentHashMap<>();
     public static CatscriptType getListType(CatscriptType type) {
-        ListType listType = cache.get(type);
-        if (listType != null){
-            return listType;
-        } else {
-            ListType newListType = new ListType(type);
-            cache.put(type, newListType);
-            return newListType;
-
-        }
+        return cache.computeIfAbsent(type, ListType::new);
     }
 
     @Override
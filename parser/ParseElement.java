@@ -8,7 +8,9 @@ import edu.montana.csci.csci468.tokenizer.Token;
 import org.objectweb.asm.Opcodes;
 
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -16,16 +18,15 @@ import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFo
 
 public abstract class ParseElement {
 
+    private static final ParseElement[] NO_CHILDREN = new ParseElement[0];
+
     protected ParseElement parent;
     private Token start;
     private Token end;
-    private List<ParseElement> children;
-    private List<ParseError> errors;
-
-    public ParseElement() {
-        this.errors = new LinkedList<>();
-        this.children = new LinkedList<>();
-    }
+    // leaves share the empty array and error free nodes the empty list
+    private ParseElement[] children = NO_CHILDREN;
+    private int childCount = 0;
+    private List<ParseError> errors = Collections.emptyList();
 
     public CatScriptProgram getProgram() {
         if (this.getParent() instanceof CatScriptProgram) {
@@ -73,17 +74,30 @@ public abstract class ParseElement {
     }
 
     public void addError(ErrorType errorMessage, Token token, Object... args) {
+        if (errors.isEmpty()) {
+            errors = new ArrayList<>(2);
+        }
         errors.add(new ParseError(token, errorMessage, args));
     }
 
+    // nodes that know how many children they will get size the array once
+    protected void reserveChildren(int count) {
+        if (childCount + count > children.length) {
+            children = Arrays.copyOf(children, childCount + count);
+        }
+    }
+
     protected <T extends ParseElement> T addChild(T element) {
         element.parent = this;
-        children.add(element);
+        if (childCount == children.length) {
+            children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+        }
+        children[childCount++] = element;
         return element;
     }
 
     public List<ParseElement> getChildren() {
-        return children;
+        return Collections.unmodifiableList(Arrays.asList(children).subList(0, childCount));
     }
 
     @Override
@@ -96,13 +110,14 @@ public abstract class ParseElement {
     }
 
     private void registerFunctions(SymbolTable symbolTable) {
-        for (ParseElement child : children) {
+        for (int i = 0; i < childCount; i++) {
+            ParseElement child = children[i];
             if (child instanceof FunctionDefinitionStatement) {
                 FunctionDefinitionStatement func = (FunctionDefinitionStatement) child;
-                if (symbolTable.hasSymbol(func.getName())) {
+                if (symbolTable.hasSymbol(func.getSymbol())) {
                     func.addError(ErrorType.DUPLICATE_NAME);
                 } else {
-                    symbolTable.registerFunction(func.getName(), func);
+                    symbolTable.registerFunction(func.getSymbol(), func);
                 }
             }
         }
@@ -114,19 +129,28 @@ public abstract class ParseElement {
         registerFunctions(symbolTable);
         validate(symbolTable);
 
-        final LinkedList<ParseError> collector = new LinkedList<>();
+        final List<ParseError> collector = new ArrayList<>();
         collectErrors(collector, this);
         if (collector.size() > 0) {
             throw new ParseErrorException(collector);
         }
+        resolve(new ScopeResolver());
     }
 
     public abstract void validate(SymbolTable symbolTable);
 
-    private void collectErrors(LinkedList<ParseError> collector, ParseElement parseElement){
-        collector.addAll(parseElement.getErrors());
-        for (ParseElement child : parseElement.getChildren()) {
-            collectErrors(collector, child);
+    // assigns variables their frame slots, only elements that declare, read or write
+    // variables or open a scope need to do more than pass it on to their children
+    public void resolve(ScopeResolver resolver) {
+        for (int i = 0; i < childCount; i++) {
+            children[i].resolve(resolver);
+        }
+    }
+
+    private void collectErrors(List<ParseError> collector, ParseElement parseElement){
+        collector.addAll(parseElement.errors);
+        for (int i = 0; i < parseElement.childCount; i++) {
+            collectErrors(collector, parseElement.children[i]);
         }
     }
 
@@ -157,7 +181,7 @@ public abstract class ParseElement {
         }
         if (type.equals(CatscriptType.BOOLEAN)) {
             code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(Boolean.class),
-                    "booleanValue", "()Z;");
+                    "booleanValue", "()Z");
         }
     }
 
@@ -4,12 +4,21 @@ import java.util.List;
 
 public class ParseErrorException extends RuntimeException {
     private final List<ParseError> errors;
+    private String message;
 
     public ParseErrorException(List<ParseError> errors) {
-        super(makeMessage(errors));
         this.errors = errors;
     }
 
+    // badly broken inputs produce a lot of errors, only render them when someone reads the message
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = makeMessage(errors);
+        }
+        return message;
+    }
+
     private static String makeMessage(List<ParseError> errors) {
         StringBuilder errorMessage = new StringBuilder("Parse Errors Occurred:\n\n");
         for (ParseError error : errors) {
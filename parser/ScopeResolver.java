@@ -0,0 +1,81 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.tokenizer.Symbol;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+// Gives every variable a slot in a frame, mirroring the scopes SymbolTable validates with.
+// The program has a frame for its globals and every function call gets one for its parameters
+// and locals, block scopes are flattened into the frame around them and sibling blocks share
+// slots. Functions only nest in the program, so a name is either in the current frame
+// (depth 0) or in the program's (depth 1).
+public class ScopeResolver {
+
+    private final Frame globals = new Frame();
+    private Frame current = globals;
+
+    public void pushScope() {
+        current.scopes.push(new HashMap<>());
+    }
+
+    public void popScope() {
+        current.nextSlot -= current.scopes.pop().size();
+    }
+
+    public int declare(Symbol name) {
+        int slot = current.nextSlot++;
+        current.scopes.peek().put(name, slot);
+        current.size = Math.max(current.size, current.nextSlot);
+        return slot;
+    }
+
+    public void beginFrame() {
+        current = new Frame();
+    }
+
+    // returns the number of slots the function's frame needs
+    public int endFrame() {
+        int size = current.size;
+        current = globals;
+        return size;
+    }
+
+    public int getFrameSize() {
+        return current.size;
+    }
+
+    public int depthOf(Symbol name) {
+        if (current.slotOf(name) != null) {
+            return 0;
+        } else if (current != globals && globals.slotOf(name) != null) {
+            return 1;
+        }
+        throw new IllegalStateException("Unresolved name : " + name);
+    }
+
+    public int slotOf(Symbol name) {
+        return depthOf(name) == 0 ? current.slotOf(name) : globals.slotOf(name);
+    }
+
+    private static class Frame {
+        LinkedList<Map<Symbol, Integer>> scopes = new LinkedList<>();
+        int nextSlot = 0;
+        int size = 0;
+
+        Frame() {
+            scopes.push(new HashMap<>());
+        }
+
+        Integer slotOf(Symbol name) {
+            for (Map<Symbol, Integer> scope : scopes) {
+                Integer slot = scope.get(name);
+                if (slot != null) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.tokenizer.Symbol;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -9,21 +10,21 @@ import java.util.Map;
 
 public class SymbolTable {
 
-    LinkedList<Map<String, Object>> symbolStack = new LinkedList<>();
+    LinkedList<Map<Symbol, Object>> symbolStack = new LinkedList<>();
 
     public SymbolTable(){
-        HashMap<String, Object> globalScope = new HashMap<>();
+        HashMap<Symbol, Object> globalScope = new HashMap<>();
         symbolStack.push(globalScope);
     }
 
-    public boolean hasSymbol(String name) {
+    public boolean hasSymbol(Symbol name) {
         return getSymbol(name) != null;
     }
 
-    private Object getSymbol(String name) {
-        Iterator<Map<String, Object>> mapIterator = symbolStack.descendingIterator();
+    private Object getSymbol(Symbol name) {
+        Iterator<Map<Symbol, Object>> mapIterator = symbolStack.descendingIterator();
         while (mapIterator.hasNext()) {
-            Map<String, Object> next =  mapIterator.next();
+            Map<Symbol, Object> next =  mapIterator.next();
             Object val = next.get(name);
             if (val != null) {
                 return val;
@@ -32,15 +33,15 @@ public class SymbolTable {
         return null;
     }
 
-    public void registerFunction(String name, FunctionDefinitionStatement func) {
+    public void registerFunction(Symbol name, FunctionDefinitionStatement func) {
         symbolStack.peek().put(name, func);
     }
 
-    public void registerSymbol(String name, CatscriptType type) {
+    public void registerSymbol(Symbol name, CatscriptType type) {
         symbolStack.peek().put(name, type);
     }
 
-    public CatscriptType getSymbolType(String name) {
+    public CatscriptType getSymbolType(Symbol name) {
         Object object = getSymbol(name);
         if (object instanceof CatscriptType) {
             return (CatscriptType) object;
@@ -49,7 +50,7 @@ public class SymbolTable {
         }
     }
 
-    public FunctionDefinitionStatement getFunction(String name) {
+    public FunctionDefinitionStatement getFunction(Symbol name) {
         Object object = getSymbol(name);
         if (object instanceof FunctionDefinitionStatement) {
             return (FunctionDefinitionStatement) object;
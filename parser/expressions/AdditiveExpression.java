@@ -2,12 +2,16 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
+import edu.montana.csci.csci468.eval.IntClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -77,14 +81,48 @@ public class AdditiveExpression extends Expression {
             return lhs + rhs;
 
         } else {
-            Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-            Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
-            if (isAdd()) {
-                return lhsValue + rhsValue;
-            } else {
-                return lhsValue - rhsValue;
-            }
+            return evaluateInt(runtime);
+        }
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
+        if (isAdd()) {
+            return lhsValue + rhsValue;
+        } else {
+            return lhsValue - rhsValue;
+        }
+    }
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        ExpressionClosure lhs = leftHandSide.compileClosure();
+        ExpressionClosure rhs = rightHandSide.compileClosure();
+        if (getType().equals(CatscriptType.STRING)) {
+            return runtime -> String.valueOf(lhs.evaluate(runtime)) + rhs.evaluate(runtime);
+        } else if (isAdd()) {
+            return (IntClosure) runtime -> lhs.evaluateInt(runtime) + rhs.evaluateInt(runtime);
+        } else {
+            return (IntClosure) runtime -> lhs.evaluateInt(runtime) - rhs.evaluateInt(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        if (getType().equals(CatscriptType.STRING)) {
+            int lhs = code.toObject(leftHandSide.compileRegisters(code), leftHandSide.getType());
+            int rhs = code.toObject(rightHandSide.compileRegisters(code), rightHandSide.getType());
+            int result = code.objectTemp();
+            code.emit(RegisterOps.CONCAT, result, lhs, rhs);
+            return result;
         }
+        int lhs = leftHandSide.compileRegisters(code);
+        int rhs = rightHandSide.compileRegisters(code);
+        int result = code.intTemp();
+        code.emit(isAdd() ? RegisterOps.IADD : RegisterOps.ISUB, result, lhs, rhs);
+        return result;
     }
 
     @Override
@@ -1,9 +1,13 @@
 package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BooleanClosure;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 
 public class BooleanLiteralExpression extends Expression {
     private final boolean booleanValue;
@@ -31,6 +35,22 @@ public class BooleanLiteralExpression extends Expression {
     @Override
     public Object evaluate(CatscriptRuntime runtime) { return booleanValue; }
 
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) { return booleanValue; }
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        boolean value = booleanValue;
+        return (BooleanClosure) runtime -> value;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int register = code.intTemp();
+        code.emit(RegisterOps.ICONST, register, booleanValue ? 1 : 0);
+        return register;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
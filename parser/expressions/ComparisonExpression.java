@@ -1,12 +1,16 @@
 package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BooleanClosure;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -73,9 +77,13 @@ public class ComparisonExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        return evaluateBoolean(runtime);
+    }
 
-        Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-        Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
 
         if(isGreater()){
             return lhsValue > rhsValue;
@@ -89,7 +97,56 @@ public class ComparisonExpression extends Expression {
         if(isLessThanOrEqual()){
             return lhsValue <= rhsValue;
         }
-        return super.evaluate(runtime);
+        // Expression.evaluateBoolean calls back into evaluate, which would come straight back here
+        throw new IllegalStateException("unknown comparison operator");
+    }
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        ExpressionClosure lhs = getLeftHandSide().compileClosure();
+        ExpressionClosure rhs = getRightHandSide().compileClosure();
+        if (isGreater()) {
+            return (BooleanClosure) runtime -> lhs.evaluateInt(runtime) > rhs.evaluateInt(runtime);
+        } else if (isGreaterThanOrEqual()) {
+            return (BooleanClosure) runtime -> lhs.evaluateInt(runtime) >= rhs.evaluateInt(runtime);
+        } else if (isLessThan()) {
+            return (BooleanClosure) runtime -> lhs.evaluateInt(runtime) < rhs.evaluateInt(runtime);
+        } else {
+            return (BooleanClosure) runtime -> lhs.evaluateInt(runtime) <= rhs.evaluateInt(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int lhs = getLeftHandSide().compileRegisters(code);
+        int rhs = getRightHandSide().compileRegisters(code);
+        int result = code.intTemp();
+        if (isGreater()) {
+            code.emit(RegisterOps.IGT, result, lhs, rhs);
+        } else if (isGreaterThanOrEqual()) {
+            code.emit(RegisterOps.IGE, result, lhs, rhs);
+        } else if (isLessThan()) {
+            code.emit(RegisterOps.ILT, result, lhs, rhs);
+        } else {
+            code.emit(RegisterOps.ILE, result, lhs, rhs);
+        }
+        return result;
+    }
+
+    // the comparison and the branch are one instruction, jumping on the opposite relation
+    @Override
+    public int compileRegistersJumpIfFalse(RegisterCompiler code) {
+        int lhs = getLeftHandSide().compileRegisters(code);
+        int rhs = getRightHandSide().compileRegisters(code);
+        if (isGreater()) {
+            return code.emitForwardJump(RegisterOps.JLE, lhs, rhs);
+        } else if (isGreaterThanOrEqual()) {
+            return code.emitForwardJump(RegisterOps.JLT, lhs, rhs);
+        } else if (isLessThan()) {
+            return code.emitForwardJump(RegisterOps.JGE, lhs, rhs);
+        } else {
+            return code.emitForwardJump(RegisterOps.JGT, lhs, rhs);
+        }
     }
 
     @Override
@@ -1,11 +1,15 @@
 package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BooleanClosure;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -57,12 +61,58 @@ public class EqualityExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        if(operator.equals("==")){
-            return getLeftHandSide() == getRightHandSide();
+        return evaluateBoolean(runtime);
+    }
+
+    // values compare the way every other backend compares them, ints and booleans unboxed
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        CatscriptType lhsType = getLeftHandSide().getType();
+        boolean equal;
+        if (CatscriptType.INT.equals(lhsType) && lhsType.equals(getRightHandSide().getType())) {
+            equal = getLeftHandSide().evaluateInt(runtime) == getRightHandSide().evaluateInt(runtime);
+        } else if (CatscriptType.BOOLEAN.equals(lhsType) && lhsType.equals(getRightHandSide().getType())) {
+            equal = getLeftHandSide().evaluateBoolean(runtime) == getRightHandSide().evaluateBoolean(runtime);
+        } else {
+            equal = Objects.equals(getLeftHandSide().evaluate(runtime), getRightHandSide().evaluate(runtime));
+        }
+        return isEqual() == equal;
+    }
+
+    // compares values the way evaluateBoolean does
+    @Override
+    public ExpressionClosure compileClosure() {
+        CatscriptType lhsType = getLeftHandSide().getType();
+        CatscriptType rhsType = getRightHandSide().getType();
+        ExpressionClosure lhs = getLeftHandSide().compileClosure();
+        ExpressionClosure rhs = getRightHandSide().compileClosure();
+        boolean isEqual = isEqual();
+        if (CatscriptType.INT.equals(lhsType) && lhsType.equals(rhsType)) {
+            return (BooleanClosure) runtime -> isEqual == (lhs.evaluateInt(runtime) == rhs.evaluateInt(runtime));
+        } else if (CatscriptType.BOOLEAN.equals(lhsType) && lhsType.equals(rhsType)) {
+            return (BooleanClosure) runtime -> isEqual == (lhs.evaluateBoolean(runtime) == rhs.evaluateBoolean(runtime));
+        } else {
+            return (BooleanClosure) runtime -> isEqual == Objects.equals(lhs.evaluate(runtime), rhs.evaluate(runtime));
         }
-        else{
-            return getLeftHandSide() != getRightHandSide();
+    }
+
+    // ints and booleans compare in place when both sides have the same type, anything else is
+    // boxed and compared like compileClosure does
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        CatscriptType lhsType = getLeftHandSide().getType();
+        CatscriptType rhsType = getRightHandSide().getType();
+        int lhs = getLeftHandSide().compileRegisters(code);
+        int rhs = getRightHandSide().compileRegisters(code);
+        int result = code.intTemp();
+        if (RegisterCompiler.isIntKind(lhsType) && lhsType.equals(rhsType)) {
+            code.emit(isEqual() ? RegisterOps.IEQ : RegisterOps.INE, result, lhs, rhs);
+        } else {
+            lhs = code.toObject(lhs, lhsType);
+            rhs = code.toObject(rhs, rhsType);
+            code.emit(isEqual() ? RegisterOps.OEQ : RegisterOps.ONE, result, lhs, rhs);
         }
+        return result;
     }
 
     @Override
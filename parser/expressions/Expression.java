@@ -2,8 +2,11 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 
 public abstract class Expression extends ParseElement {
 
@@ -11,6 +14,33 @@ public abstract class Expression extends ParseElement {
         throw new UnsupportedOperationException("evaluate needs to be implemented for " + this.getClass().getName());
     }
 
+    // typed entry points for INT and BOOLEAN subtrees, arithmetic and comparisons override them
+    // so that a value is only boxed once it escapes into a list, a print or a variable
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return (Integer) evaluate(runtime);
+    }
+
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return (Boolean) evaluate(runtime);
+    }
+
+    // the expression compiled once, ahead of execution, into closures that have its
+    // types, operators and call targets decided already
+    public ExpressionClosure compileClosure() {
+        throw new UnsupportedOperationException("compileClosure needs to be implemented for " + this.getClass().getName());
+    }
+
+    // emits register code computing the expression and returns the register holding its value,
+    // in the int file for ints and booleans and in the object file otherwise
+    public int compileRegisters(RegisterCompiler code) {
+        throw new UnsupportedOperationException("compileRegisters needs to be implemented for " + this.getClass().getName());
+    }
+
+    // emits a jump taken when the condition is false, to be patched once its target is known
+    public int compileRegistersJumpIfFalse(RegisterCompiler code) {
+        return code.emitForwardJump(RegisterOps.JUMPF, compileRegisters(code));
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         throw new UnsupportedOperationException("transpile needs to be implemented for " + this.getClass().getName());
@@ -2,12 +2,16 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
+import edu.montana.csci.csci468.eval.IntClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
 public class FactorExpression extends Expression {
@@ -62,9 +66,13 @@ public class FactorExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        return evaluateInt(runtime);
+    }
 
-        Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-        Integer rhsValue = (Integer)  rightHandSide.evaluate(runtime);
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
         if (isMultiply()) {
             return lhsValue * rhsValue;
         } else {
@@ -72,6 +80,26 @@ public class FactorExpression extends Expression {
         }
     }
 
+    @Override
+    public ExpressionClosure compileClosure() {
+        ExpressionClosure lhs = getLeftHandSide().compileClosure();
+        ExpressionClosure rhs = getRightHandSide().compileClosure();
+        if (isMultiply()) {
+            return (IntClosure) runtime -> lhs.evaluateInt(runtime) * rhs.evaluateInt(runtime);
+        } else {
+            return (IntClosure) runtime -> lhs.evaluateInt(runtime) / rhs.evaluateInt(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int lhs = getLeftHandSide().compileRegisters(code);
+        int rhs = getRightHandSide().compileRegisters(code);
+        int result = code.intTemp();
+        code.emit(isMultiply() ? RegisterOps.IMUL : RegisterOps.IDIV, result, lhs, rhs);
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,24 +2,28 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 public class FunctionCallExpression extends Expression {
-    private final String name;
+    private final Symbol name;
     List<Expression> arguments;
     private CatscriptType type;
 
-    public FunctionCallExpression(String functionName, List<Expression> arguments) {
-        this.arguments = new LinkedList<>();
+    public FunctionCallExpression(Symbol functionName, List<Expression> arguments) {
+        this.arguments = new ArrayList<>(arguments.size());
+        reserveChildren(arguments.size());
         for (Expression value : arguments) {
             this.arguments.add(addChild(value));
         }
@@ -31,6 +35,10 @@ public class FunctionCallExpression extends Expression {
     }
 
     public String getName() {
+        return name.getName();
+    }
+
+    public Symbol getSymbol() {
         return name;
     }
 
@@ -41,7 +49,7 @@ public class FunctionCallExpression extends Expression {
 
     @Override
     public void validate(SymbolTable symbolTable) {
-        FunctionDefinitionStatement function = symbolTable.getFunction(getName());
+        FunctionDefinitionStatement function = symbolTable.getFunction(name);
         if (function == null) {
             addError(ErrorType.UNKNOWN_NAME);
             type = CatscriptType.OBJECT;
@@ -73,6 +81,38 @@ public class FunctionCallExpression extends Expression {
         return getProgram().getFunction(name).invoke(runtime, args);
     }
 
+    // the target is looked up once here rather than on every call
+    @Override
+    public ExpressionClosure compileClosure() {
+        FunctionDefinitionStatement function = getProgram().getFunction(name);
+        ExpressionClosure[] closures = new ExpressionClosure[arguments.size()];
+        for (int i = 0; i < closures.length; i++) {
+            closures[i] = arguments.get(i).compileClosure();
+        }
+        return runtime -> {
+            Object[] args = new Object[closures.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = closures[i].evaluate(runtime);
+            }
+            return function.invokeClosure(runtime, args);
+        };
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        FunctionDefinitionStatement function = getProgram().getFunction(name);
+        int[] operands = new int[arguments.size() + 3];
+        operands[0] = code.functionIndex(function);
+        operands[2] = arguments.size();
+        for (int i = 0; i < arguments.size(); i++) {
+            Expression argument = arguments.get(i);
+            operands[i + 3] = code.convert(argument.compileRegisters(code), argument.getType(), function.getParameterType(i));
+        }
+        operands[1] = code.temp(type);
+        code.emit(RegisterOps.CALL, operands);
+        return operands[1];
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -91,7 +131,7 @@ public class FunctionCallExpression extends Expression {
                 box(code, expression.getType());
             }
         }
-        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, code.getProgramInternalName(), name, function.getDescriptor());
+        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, code.getProgramInternalName(), getName(), function.getDescriptor());
     }
 
 
@@ -2,21 +2,32 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
 public class IdentifierExpression extends Expression {
-    private final String name;
+    private final Symbol name;
     private CatscriptType type;
+    private int depth;
+    private int slot;
 
-    public IdentifierExpression(String value) {
+    public IdentifierExpression(Symbol value) {
         this.name = value;
     }
 
     public String getName() {
+        return name.getName();
+    }
+
+    public Symbol getSymbol() {
         return name;
     }
 
@@ -27,7 +38,7 @@ public class IdentifierExpression extends Expression {
 
     @Override
     public void validate(SymbolTable symbolTable) {
-        CatscriptType type = symbolTable.getSymbolType(getName());
+        CatscriptType type = symbolTable.getSymbolType(name);
         if (type == null) {
             addError(ErrorType.UNKNOWN_NAME);
         } else {
@@ -35,13 +46,46 @@ public class IdentifierExpression extends Expression {
         }
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        depth = resolver.depthOf(name);
+        slot = resolver.slotOf(name);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        return runtime.getValue(name);
+        return runtime.getValue(depth, slot);
+    }
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        int slot = this.slot;
+        if (depth == 0) {
+            return runtime -> runtime.getValue(0, slot);
+        } else {
+            return runtime -> runtime.getValue(1, slot);
+        }
+    }
+
+    // variables of the frame being run are read in place, unless a call could assign them meanwhile
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        if (depth == 0 && (code.isInFunction() || !code.isGlobalAssignedByFunctions())) {
+            return slot;
+        }
+        int register = code.temp(type);
+        if (depth == 0) {
+            code.move(register, slot, type);
+        } else if (RegisterCompiler.isIntKind(type)) {
+            code.emit(RegisterOps.IGETG, register, slot);
+        } else {
+            code.emit(RegisterOps.OGETG, register, slot);
+        }
+        return register;
     }
 
     @Override
@@ -56,16 +100,20 @@ public class IdentifierExpression extends Expression {
         // local var
         // ILOAD or ALOAD depending on type
         if (integer != null) {
-            code.addVarInstruction(Opcodes.ILOAD, integer);
+            if (type == CatscriptType.INT || type == CatscriptType.BOOLEAN) {
+                code.addVarInstruction(Opcodes.ILOAD, integer);
+            } else {
+                code.addVarInstruction(Opcodes.ALOAD, integer);
+            }
         } else {
             //field
             code.addVarInstruction(Opcodes.ALOAD, 0);
 
             if(type == CatscriptType.INT || type == CatscriptType.BOOLEAN) {
-                code.addFieldInstruction(Opcodes.GETFIELD, name, "I",
+                code.addFieldInstruction(Opcodes.GETFIELD, getName(), "I",
                         code.getProgramInternalName());
             } else{
-                code.addFieldInstruction(Opcodes.GETFIELD, name, "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType()) + ";",
+                code.addFieldInstruction(Opcodes.GETFIELD, getName(), "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType()) + ";",
                         code.getProgramInternalName());
             }
         }
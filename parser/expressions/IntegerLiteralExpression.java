@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
+import edu.montana.csci.csci468.eval.IntClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 
 public class IntegerLiteralExpression extends Expression {
     private final int integerVal;
@@ -38,6 +42,36 @@ public class IntegerLiteralExpression extends Expression {
         return integerVal;
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return integerVal;
+    }
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        int value = integerVal;
+        Integer boxed = integerVal;
+        // boxed once here for the contexts that want an object
+        return new IntClosure() {
+            @Override
+            public int evaluateInt(CatscriptRuntime runtime) {
+                return value;
+            }
+
+            @Override
+            public Object evaluate(CatscriptRuntime runtime) {
+                return boxed;
+            }
+        };
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int register = code.intTemp();
+        code.emit(RegisterOps.ICONST, register, integerVal);
+        return register;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append(integerVal);
@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
@@ -17,7 +21,8 @@ public class ListLiteralExpression extends Expression {
     private CatscriptType type;
 
     public ListLiteralExpression(List<Expression> values) {
-        this.values = new LinkedList<>();
+        this.values = new ArrayList<>(values.size());
+        reserveChildren(values.size());
         for (Expression value : values) {
             this.values.add(addChild(value));
         }
@@ -51,6 +56,7 @@ public class ListLiteralExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        runtime.allocateList(values.size());
         ArrayList<Object> vals = new ArrayList<>();
         for (Expression value : values) {
             vals.add(value.evaluate(runtime));
@@ -59,6 +65,35 @@ public class ListLiteralExpression extends Expression {
         return vals;
     }
 
+    @Override
+    public ExpressionClosure compileClosure() {
+        ExpressionClosure[] closures = new ExpressionClosure[values.size()];
+        for (int i = 0; i < closures.length; i++) {
+            closures[i] = values.get(i).compileClosure();
+        }
+        return runtime -> {
+            runtime.allocateList(closures.length);
+            ArrayList<Object> vals = new ArrayList<>(closures.length);
+            for (ExpressionClosure closure : closures) {
+                vals.add(closure.evaluate(runtime));
+            }
+            return vals;
+        };
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int[] operands = new int[values.size() + 2];
+        operands[1] = values.size();
+        for (int i = 0; i < values.size(); i++) {
+            Expression value = values.get(i);
+            operands[i + 2] = code.toObject(value.compileRegisters(code), value.getType());
+        }
+        operands[0] = code.objectTemp();
+        code.emit(RegisterOps.NEWLIST, operands);
+        return operands[0];
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -67,6 +102,9 @@ public class ListLiteralExpression extends Expression {
     @Override
     //partly done in class
     public void compile(ByteCodeGenerator code) {
+        code.addVarInstruction(Opcodes.ALOAD, 0);
+        code.pushConstantOntoStack(values.size());
+        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class), "allocateList", "(I)V");
         code.addTypeInstruction(Opcodes.NEW, internalNameFor(LinkedList.class));
         code.addInstruction(Opcodes.DUP);
         code.addMethodInstruction(Opcodes.INVOKESPECIAL,internalNameFor(LinkedList.class),"<init>","()V");
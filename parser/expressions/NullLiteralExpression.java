@@ -2,8 +2,11 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 
 public class NullLiteralExpression extends Expression {
 
@@ -22,6 +25,18 @@ public class NullLiteralExpression extends Expression {
     @Override
     public Object evaluate(CatscriptRuntime runtime) {return null;}
 
+    @Override
+    public ExpressionClosure compileClosure() {
+        return runtime -> null;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int register = code.objectTemp();
+        code.emit(RegisterOps.OCONST, register, code.constant(null));
+        return register;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,10 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 public class ParenthesizedExpression extends Expression {
 
@@ -36,6 +38,27 @@ public class ParenthesizedExpression extends Expression {
     @Override
     public Object evaluate(CatscriptRuntime runtime) {return expression.evaluate(runtime);}
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {return expression.evaluateInt(runtime);}
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {return expression.evaluateBoolean(runtime);}
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        return expression.compileClosure();
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        return expression.compileRegisters(code);
+    }
+
+    @Override
+    public int compileRegistersJumpIfFalse(RegisterCompiler code) {
+        return expression.compileRegistersJumpIfFalse(code);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append("(");
@@ -2,8 +2,11 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 
 public class StringLiteralExpression extends Expression {
     private final String stringValue;
@@ -33,6 +36,19 @@ public class StringLiteralExpression extends Expression {
         return stringValue;
     }
 
+    @Override
+    public ExpressionClosure compileClosure() {
+        String value = stringValue;
+        return runtime -> value;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int register = code.objectTemp();
+        code.emit(RegisterOps.OCONST, register, code.constant(stringValue));
+        return register;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -3,7 +3,6 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
-import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 
@@ -11,7 +10,6 @@ public class SyntaxErrorExpression extends Expression {
 
     public SyntaxErrorExpression(Token consumeToken) {
         setToken(consumeToken);
-        addError(ErrorType.UNEXPECTED_TOKEN);
     }
 
     @Override
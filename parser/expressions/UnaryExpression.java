@@ -1,13 +1,18 @@
 package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BooleanClosure;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
+import edu.montana.csci.csci468.eval.IntClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -63,12 +68,11 @@ public class UnaryExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object rhsValue = getRightHandSide().evaluate(runtime);
         if (this.isMinus()) {
-            return -1 * (Integer) rhsValue;
+            return evaluateInt(runtime);
         }
         if (this.isNot()){
-            return !(Boolean) rhsValue;
+            return evaluateBoolean(runtime);
         }
         else {
 
@@ -76,6 +80,34 @@ public class UnaryExpression extends Expression {
         }
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return -getRightHandSide().evaluateInt(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return !getRightHandSide().evaluateBoolean(runtime);
+    }
+
+    @Override
+    public ExpressionClosure compileClosure() {
+        ExpressionClosure rhs = getRightHandSide().compileClosure();
+        if (isMinus()) {
+            return (IntClosure) runtime -> -rhs.evaluateInt(runtime);
+        } else {
+            return (BooleanClosure) runtime -> !rhs.evaluateBoolean(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int rhs = getRightHandSide().compileRegisters(code);
+        int result = code.intTemp();
+        code.emit(isMinus() ? RegisterOps.INEG : RegisterOps.NOT, result, rhs);
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,18 +2,27 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class AssignmentStatement extends Statement {
     private Expression expression;
-    private String variableName;
+    private Symbol variableName;
+    private CatscriptType type;
+    private int depth;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
@@ -23,11 +32,11 @@ public class AssignmentStatement extends Statement {
         this.expression = addChild(expression);
     }
 
-    public String getVariableName() {
+    public Symbol getVariableName() {
         return variableName;
     }
 
-    public void setVariableName(String variableName) {
+    public void setVariableName(Symbol variableName) {
         this.variableName = variableName;
     }
 
@@ -41,15 +50,45 @@ public class AssignmentStatement extends Statement {
             if(!symbolType.isAssignableFrom(expression.getType())) {
                 addError(ErrorType.INCOMPATIBLE_TYPES);
             }
+            type = symbolType;
         }
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        depth = resolver.depthOf(variableName);
+        slot = resolver.slotOf(variableName);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        runtime.setValue(variableName,expression.evaluate(runtime));
+        runtime.setValue(depth, slot, expression.evaluate(runtime));
+    }
+
+    @Override
+    public StatementClosure compileClosure() {
+        ExpressionClosure value = expression.compileClosure();
+        int slot = this.slot;
+        if (depth == 0) {
+            return runtime -> runtime.setValue(0, slot, value.evaluate(runtime));
+        } else {
+            return runtime -> runtime.setValue(1, slot, value.evaluate(runtime));
+        }
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int value = code.convert(expression.compileRegisters(code), expression.getType(), type);
+        if (depth == 0) {
+            code.move(slot, value, type);
+        } else {
+            code.globalAssignedByFunction();
+            code.emit(RegisterCompiler.isIntKind(type) ? RegisterOps.ISETG : RegisterOps.OSETG, slot, value);
+        }
     }
 
     @Override
@@ -60,22 +99,24 @@ public class AssignmentStatement extends Statement {
     @Override
     public void compile(ByteCodeGenerator code) {
         Integer localCode = code.resolveLocalStorageSlotFor(variableName);
-        CatscriptType exprType = expression.getType();
-        boolean intOrBool = exprType.equals(CatscriptType.INT) || exprType.equals(CatscriptType.BOOLEAN);
+        // the variable's declared type decides how it is stored, not the value's
+        boolean intOrBool = type.equals(CatscriptType.INT) || type.equals(CatscriptType.BOOLEAN);
         if (localCode != null) {
             expression.compile(code);
             if (intOrBool) {
                 code.addVarInstruction(Opcodes.ISTORE, localCode);
             } else {
+                box(code, expression.getType());
                 code.addVarInstruction(Opcodes.ASTORE, localCode);
             }
         } else {
             code.addVarInstruction(Opcodes.ALOAD, 0);
             expression.compile(code);
             if (intOrBool) {
-                code.addFieldInstruction(Opcodes.PUTFIELD, variableName, "I", code.getProgramInternalName());
+                code.addFieldInstruction(Opcodes.PUTFIELD, variableName.getName(), "I", code.getProgramInternalName());
             } else {
-                code.addFieldInstruction(Opcodes.PUTFIELD, variableName, "L" + internalNameFor(expression.getType().getJavaType()) + ";", code.getProgramInternalName());
+                box(code, expression.getType());
+                code.addFieldInstruction(Opcodes.PUTFIELD, variableName.getName(), "L" + internalNameFor(type.getJavaType()) + ";", code.getProgramInternalName());
             }
         }
     }
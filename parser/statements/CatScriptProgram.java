@@ -1,28 +1,71 @@
 package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BudgetMeter;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
+import edu.montana.csci.csci468.eval.OutputSink;
+import edu.montana.csci.csci468.eval.StringOutputSink;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
+// Executing a verified program leaves it as it was, all the state of a run lives in the
+// CatscriptRuntime passed to execute, so one program can be run from many threads at once with
+// a runtime each. execute() and getOutput() are for running a program nothing else shares, as
+// generated subclasses are, each instance holding the globals of one run.
 public class CatScriptProgram extends Statement {
 
-    private StringBuffer output = new StringBuffer();
-    private List<Statement> statements = new LinkedList<>();
-    private Map<String, FunctionDefinitionStatement> functions = new HashMap<>();
+    private OutputSink output = new StringOutputSink();
+    private BudgetMeter meter = new BudgetMeter(ExecutionBudget.UNLIMITED);
+    private List<Statement> statements = new ArrayList<>();
+    private Map<Symbol, FunctionDefinitionStatement> functions = new HashMap<>();
     private Expression expression;
+    private int globalFrameSize;
 
     public void print(Object v) {
-        output.append(v).append("\n");
+        output.print(String.valueOf(v));
+    }
+
+    // sends what execute() prints somewhere other than getOutput()
+    public void setOutputSink(OutputSink output) {
+        this.output = output;
+    }
+
+    // limits what execute() may do, the time limit counts from here
+    public void setBudget(ExecutionBudget budget) {
+        meter = new BudgetMeter(budget);
+    }
+
+    // generated subclasses call these at loop back-edges, function entries and exits and
+    // list literals, see CatscriptRuntime
+    public void safepoint() {
+        meter.step();
+    }
+
+    public void enterFunction() {
+        meter.enterCall();
+    }
+
+    public void exitFunction() {
+        meter.exitCall();
+    }
+
+    public void allocateList(int size) {
+        meter.allocateList(size);
     }
 
     public String getOutput(){
@@ -34,7 +77,7 @@ public class CatScriptProgram extends Statement {
         statements.add(statement);
         if (statement instanceof FunctionDefinitionStatement) {
             FunctionDefinitionStatement function = (FunctionDefinitionStatement) statement;
-            functions.put(function.getName(), function);
+            functions.put(function.getSymbol(), function);
         }
     }
 
@@ -54,7 +97,7 @@ public class CatScriptProgram extends Statement {
         return expression != null;
     }
 
-    public FunctionDefinitionStatement getFunction(String name) {
+    public FunctionDefinitionStatement getFunction(Symbol name) {
         return functions.get(name);
     }
 
@@ -70,7 +113,17 @@ public class CatScriptProgram extends Statement {
     }
 
     public void execute() {
-        execute(new CatscriptRuntime());
+        execute(new CatscriptRuntime(output, meter));
+    }
+
+    public int getGlobalFrameSize() {
+        return globalFrameSize;
+    }
+
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        super.resolve(resolver);
+        globalFrameSize = resolver.getFrameSize();
     }
 
     //==============================================================
@@ -78,8 +131,9 @@ public class CatScriptProgram extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
+        runtime.allocateGlobals(globalFrameSize);
         if (expression != null) {
-            print(expression.evaluate(runtime));
+            runtime.print(expression.evaluate(runtime));
         } else {
             for (Statement statement : statements) {
                 statement.execute(runtime);
@@ -87,6 +141,43 @@ public class CatScriptProgram extends Statement {
         }
     }
 
+    // function bodies are compiled along with the program, so the closure has to be
+    // built again whenever the program changes
+    @Override
+    public StatementClosure compileClosure() {
+        int globalFrameSize = this.globalFrameSize;
+        if (expression != null) {
+            ExpressionClosure value = expression.compileClosure();
+            return runtime -> {
+                runtime.allocateGlobals(globalFrameSize);
+                runtime.print(value.evaluate(runtime));
+            };
+        }
+        StatementClosure block = compileBlock(statements);
+        return runtime -> {
+            runtime.allocateGlobals(globalFrameSize);
+            block.execute(runtime);
+        };
+    }
+
+    // functions go first, so the top level knows whether any of them assign its variables
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        if (expression != null) {
+            code.print(expression.compileRegisters(code), expression.getType());
+        } else {
+            List<Statement> topLevel = new ArrayList<>(statements.size());
+            for (Statement statement : statements) {
+                if (statement instanceof FunctionDefinitionStatement) {
+                    statement.compileRegisters(code);
+                } else {
+                    topLevel.add(statement);
+                }
+            }
+            code.compileBlock(topLevel);
+        }
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         if (isExpression()) {
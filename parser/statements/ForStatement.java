@@ -2,36 +2,44 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class ForStatement extends Statement {
     private Expression expression;
-    private String variableName;
+    private Symbol variableName;
     private List<Statement> body;
+    private int slot;
 
     public void setExpression(Expression expression) {
         this.expression = addChild(expression);
     }
 
-    public void setVariableName(String variableName) {
+    public void setVariableName(Symbol variableName) {
         this.variableName = variableName;
     }
 
     public void setBody(List<Statement> statements) {
-        this.body = new LinkedList<>();
+        this.body = new ArrayList<>(statements.size());
+        reserveChildren(statements.size());
         for (Statement statement : statements) {
             this.body.add(addChild(statement));
         }
@@ -41,7 +49,7 @@ public class ForStatement extends Statement {
         return expression;
     }
 
-    public String getVariableName() {
+    public Symbol getVariableName() {
         return variableName;
     }
 
@@ -74,6 +82,17 @@ public class ForStatement extends Statement {
         return ((CatscriptType.ListType) expression.getType()).getComponentType();
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        resolver.pushScope();
+        slot = resolver.declare(variableName);
+        for (Statement statement : body) {
+            statement.resolve(resolver);
+        }
+        resolver.popScope();
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -81,11 +100,54 @@ public class ForStatement extends Statement {
     public void execute(CatscriptRuntime runtime) {
         List evaluate = (List) expression.evaluate(runtime);
         for (Object loopVariableValue : evaluate){
-            runtime.setValue(variableName, loopVariableValue);
+            runtime.setValue(0, slot, loopVariableValue);
             for (Statement statement : body) {
                 statement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
             }
+            runtime.step();
+        }
+    }
+
+    @Override
+    public StatementClosure compileClosure() {
+        ExpressionClosure list = expression.compileClosure();
+        StatementClosure block = compileBlock(body);
+        int slot = this.slot;
+        return runtime -> {
+            for (Object loopVariableValue : (List<?>) list.evaluate(runtime)) {
+                runtime.setValue(0, slot, loopVariableValue);
+                block.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
+                runtime.step();
+            }
+        };
+    }
+
+    // the iterator is pinned before anything else is allocated, the body's temporaries go above it
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int iterator = code.pinObjectTemp();
+        code.emit(RegisterOps.ITER, iterator, expression.compileRegisters(code));
+        int loopStart = code.here();
+        CatscriptType componentType = getComponentType();
+        int next;
+        if (componentType.equals(CatscriptType.INT)) {
+            next = RegisterOps.INEXT;
+        } else if (componentType.equals(CatscriptType.BOOLEAN)) {
+            next = RegisterOps.BNEXT;
+        } else {
+            next = RegisterOps.ONEXT;
         }
+        int loopExit = code.emitForwardJump(next, slot, iterator);
+        code.compileBlock(body);
+        code.emit(RegisterOps.LOOP, loopStart);
+        code.patch(loopExit);
+        code.unpinObjectTemp();
     }
 
     @Override
@@ -129,6 +191,8 @@ public class ForStatement extends Statement {
         for (Statement statement : body) {
             statement.compile(code);
         }
+        code.addVarInstruction(Opcodes.ALOAD, 0);
+        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class), "safepoint", "()V");
         code.addJumpInstruction(Opcodes.GOTO, iterationStart);
         code.addLabel(end);
     }
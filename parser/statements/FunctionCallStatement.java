@@ -2,10 +2,13 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import java.util.List;
@@ -37,6 +40,17 @@ public class FunctionCallStatement extends Statement {
         expression.evaluate(runtime);
     }
 
+    @Override
+    public StatementClosure compileClosure() {
+        ExpressionClosure call = expression.compileClosure();
+        return call::evaluate;
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        expression.compileRegisters(code);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,29 +2,33 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.eval.ReturnException;
+import edu.montana.csci.csci468.eval.StatementClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.TypeLiteral;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class FunctionDefinitionStatement extends Statement {
-    private String name;
+    private Symbol name;
     private CatscriptType type;
     private List<CatscriptType> argumentTypes = new ArrayList<>();
-    private List<String> argumentNames = new ArrayList<>();
-    private LinkedList<Statement> body;
+    private List<Symbol> argumentNames = new ArrayList<>();
+    private List<Statement> body;
+    private int frameSize;
+    private volatile StatementClosure compiledBody;
 
-    public void setName(String name) {
+    public void setName(Symbol name) {
         this.name = name;
     }
 
@@ -42,10 +46,14 @@ public class FunctionDefinitionStatement extends Statement {
     }
 
     public String getName() {
+        return name.getName();
+    }
+
+    public Symbol getSymbol() {
         return name;
     }
 
-    public void addParameter(String name, TypeLiteral typeLiteral) {
+    public void addParameter(Symbol name, TypeLiteral typeLiteral) {
         argumentNames.add(name);
         if (typeLiteral == null) {
             argumentTypes.add(CatscriptType.OBJECT);
@@ -55,7 +63,7 @@ public class FunctionDefinitionStatement extends Statement {
         }
     }
 
-    public String getParameterName(int i) {
+    public Symbol getParameterName(int i) {
         return argumentNames.get(i);
     }
 
@@ -68,7 +76,8 @@ public class FunctionDefinitionStatement extends Statement {
     }
 
     public void setBody(List<Statement> statements) {
-        this.body = new LinkedList<>();
+        this.body = new ArrayList<>(statements.size());
+        reserveChildren(statements.size());
         for (Statement statement : statements) {
             this.body.add(addChild(statement));
         }
@@ -114,23 +123,38 @@ public class FunctionDefinitionStatement extends Statement {
         return false;
     }
 
+    // parameters take the first slots of the function's frame
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        resolver.beginFrame();
+        for (Symbol argumentName : argumentNames) {
+            resolver.declare(argumentName);
+        }
+        for (Statement statement : body) {
+            statement.resolve(resolver);
+        }
+        frameSize = resolver.endFrame();
+    }
+
     public Object invoke(CatscriptRuntime runtime, List<Object> args) {
-        runtime.pushScope();
+        runtime.enterCall();
+        Object[] callerFrame = runtime.pushFrame(frameSize);
         int parameterCount = getParameterCount();
         for (int i = 0; i < parameterCount; i++) {
-            runtime.setValue(getParameterName(i), args.get(i));
+            runtime.setValue(0, i, args.get(i));
         }
-        Object returnVal = null;
         try {
             for (Statement statement : body) {
                 statement.execute(runtime);
+                if (runtime.isReturning()) {
+                    break;
+                }
             }
-        } catch (ReturnException re) {
-            returnVal = re.getValue();
+            return runtime.takeReturnValue();
         } finally {
-            runtime.popScope();
+            runtime.popFrame(callerFrame);
+            runtime.exitCall();
         }
-        return returnVal;
     }
 
     public String getDescriptor() {
@@ -139,7 +163,7 @@ public class FunctionDefinitionStatement extends Statement {
             if (argumentType.equals(CatscriptType.BOOLEAN) || argumentType.equals(CatscriptType.INT)) {
                 sb.append("I");
             } else {
-                sb.append("L").append(internalNameFor(getType().getJavaType())).append(";");
+                sb.append("L").append(internalNameFor(argumentType.getJavaType())).append(";");
             }
         }
         sb.append(")");
@@ -161,6 +185,39 @@ public class FunctionDefinitionStatement extends Statement {
 
     }
 
+    // the body is compiled with the program, calls reach it through invokeClosure. Compiling the
+    // same program again, perhaps on another thread, keeps the body compiled the first time
+    @Override
+    public StatementClosure compileClosure() {
+        if (compiledBody == null) {
+            compiledBody = compileBlock(body);
+        }
+        return runtime -> {};
+    }
+
+    public Object invokeClosure(CatscriptRuntime runtime, Object[] args) {
+        runtime.enterCall();
+        Object[] callerFrame = runtime.pushFrame(frameSize);
+        for (int i = 0; i < args.length; i++) {
+            runtime.setValue(0, i, args[i]);
+        }
+        try {
+            compiledBody.execute(runtime);
+            return runtime.takeReturnValue();
+        } finally {
+            runtime.popFrame(callerFrame);
+            runtime.exitCall();
+        }
+    }
+
+    // the body becomes a function of its own, calls reach it through its index
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        code.pushFunction(this, frameSize);
+        code.compileBlock(body);
+        code.popFunction(this);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -168,16 +225,20 @@ public class FunctionDefinitionStatement extends Statement {
 
     @Override
     public void compile(ByteCodeGenerator code) {
-        code.pushMethod(Opcodes.ACC_PUBLIC, name, getDescriptor());
-        for (String argumentName : argumentNames) {
+        code.pushMethod(Opcodes.ACC_PUBLIC, getName(), getDescriptor());
+        for (Symbol argumentName : argumentNames) {
             code.createLocalStorageSlotFor(argumentName);
         }
+        code.addVarInstruction(Opcodes.ALOAD, 0);
+        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class), "enterFunction", "()V");
         //compile body
         for(Statement statement : body){
             statement.compile(code);
         }
         if(type.equals(CatscriptType.VOID)){
             // add return instruction
+            code.addVarInstruction(Opcodes.ALOAD, 0);
+            code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class), "exitFunction", "()V");
             code.addInstruction(Opcodes.RETURN);
         }
         code.popMethod();
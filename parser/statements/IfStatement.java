@@ -2,16 +2,21 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class IfStatement extends Statement {
@@ -32,7 +37,8 @@ public class IfStatement extends Statement {
     }
 
     public void setTrueStatements(List<Statement> statements) {
-        this.trueStatements = new LinkedList<>();
+        this.trueStatements = new ArrayList<>(statements.size());
+        reserveChildren(statements.size());
         for (Statement statement : statements) {
             this.trueStatements.add(addChild(statement));
         }
@@ -43,7 +49,8 @@ public class IfStatement extends Statement {
     }
 
     public void setElseStatements(List<Statement> statements) {
-        this.elseStatements = new LinkedList<>();
+        this.elseStatements = new ArrayList<>(statements.size());
+        reserveChildren(statements.size());
         for (Statement statement : statements) {
             this.elseStatements.add(addChild(statement));
         }
@@ -67,21 +74,70 @@ public class IfStatement extends Statement {
         symbolTable.popScope();
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        resolver.pushScope();
+        for (Statement trueStatement : trueStatements) {
+            trueStatement.resolve(resolver);
+        }
+        resolver.popScope();
+        resolver.pushScope();
+        for (Statement elseStatement : elseStatements) {
+            elseStatement.resolve(resolver);
+        }
+        resolver.popScope();
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        Object condition = expression.evaluate(runtime);
-        if(condition.equals(true)){
+        boolean condition = expression.evaluateBoolean(runtime);
+        if(condition){
             for (Statement tStatement : trueStatements) {
                 tStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
             }
         }
-        else if(condition.equals(false)) {
+        else {
             for (Statement fStatement : elseStatements) {
                 fStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public StatementClosure compileClosure() {
+        ExpressionClosure condition = expression.compileClosure();
+        StatementClosure trueBlock = compileBlock(trueStatements);
+        StatementClosure elseBlock = compileBlock(elseStatements);
+        return runtime -> {
+            if (condition.evaluateBoolean(runtime)) {
+                trueBlock.execute(runtime);
+            } else {
+                elseBlock.execute(runtime);
             }
+        };
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int toElse = expression.compileRegistersJumpIfFalse(code);
+        code.compileBlock(trueStatements);
+        if (elseStatements.isEmpty()) {
+            code.patch(toElse);
+        } else {
+            int toEnd = code.emitForwardJump(RegisterOps.JUMP);
+            code.patch(toElse);
+            code.compileBlock(elseStatements);
+            code.patch(toEnd);
         }
     }
 
@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
+import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -30,7 +34,23 @@ public class PrintStatement extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        getProgram().print(expression.evaluate(runtime));
+        runtime.print(expression.evaluate(runtime));
+    }
+
+    @Override
+    public StatementClosure compileClosure() {
+        ExpressionClosure value = expression.compileClosure();
+        if (CatscriptType.INT.equals(expression.getType())) {
+            return runtime -> runtime.print(value.evaluateInt(runtime));
+        } else if (CatscriptType.BOOLEAN.equals(expression.getType())) {
+            return runtime -> runtime.print(value.evaluateBoolean(runtime));
+        }
+        return runtime -> runtime.print(value.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        code.print(expression.compileRegisters(code), expression.getType());
     }
 
     @Override
@@ -2,14 +2,19 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.eval.ReturnException;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterOps;
 import org.objectweb.asm.Opcodes;
 
+import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
+
 public class ReturnStatement extends Statement {
     private Expression expression;
     private FunctionDefinitionStatement function;
@@ -49,7 +54,27 @@ public class ReturnStatement extends Statement {
         if (expression != null) {
             value = expression.evaluate(runtime);
         }
-        throw new ReturnException(value);
+        runtime.setReturnValue(value);
+    }
+
+    @Override
+    public StatementClosure compileClosure() {
+        if (expression == null) {
+            return runtime -> runtime.setReturnValue(null);
+        }
+        ExpressionClosure value = expression.compileClosure();
+        return runtime -> runtime.setReturnValue(value.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        if (expression == null) {
+            code.emit(RegisterOps.RETV);
+            return;
+        }
+        CatscriptType returnType = function.getType();
+        int value = code.convert(expression.compileRegisters(code), expression.getType(), returnType);
+        code.emit(RegisterCompiler.isIntKind(returnType) ? RegisterOps.RETI : RegisterOps.RETO, value);
     }
 
     @Override
@@ -61,6 +86,7 @@ public class ReturnStatement extends Statement {
     public void compile(ByteCodeGenerator code) {
 
         if(expression == null) {
+            exitFunction(code);
             code.addInstruction(Opcodes.RETURN);
         } else {
             expression.compile(code);
@@ -69,6 +95,8 @@ public class ReturnStatement extends Statement {
             if(returnType == CatscriptType.OBJECT){
                 box(code, expressionType);
             }
+            // after the value, a call in it still runs one level deeper
+            exitFunction(code);
 
             if(returnType == CatscriptType.INT || returnType == CatscriptType.BOOLEAN){
                 code.addInstruction(Opcodes.IRETURN);
@@ -83,4 +111,8 @@ public class ReturnStatement extends Statement {
         }
     }
 
-}
\ No newline at end of file
+    private void exitFunction(ByteCodeGenerator code) {
+        code.addVarInstruction(Opcodes.ALOAD, 0);
+        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class), "exitFunction", "()V");
+    }
+}
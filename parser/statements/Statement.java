@@ -2,7 +2,11 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
 import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+
+import java.util.List;
 
 public abstract class Statement extends ParseElement {
 
@@ -10,4 +14,30 @@ public abstract class Statement extends ParseElement {
         throw new UnsupportedOperationException("execute needs to be implemented for " + this.getClass().getName());
     }
 
+    // see Expression.compileClosure
+    public StatementClosure compileClosure() {
+        throw new UnsupportedOperationException("compileClosure needs to be implemented for " + this.getClass().getName());
+    }
+
+    // see Expression.compileRegisters
+    public void compileRegisters(RegisterCompiler code) {
+        throw new UnsupportedOperationException("compileRegisters needs to be implemented for " + this.getClass().getName());
+    }
+
+    // runs statements in order, stopping early once one of them returns
+    protected static StatementClosure compileBlock(List<Statement> statements) {
+        StatementClosure[] closures = new StatementClosure[statements.size()];
+        for (int i = 0; i < closures.length; i++) {
+            closures[i] = statements.get(i).compileClosure();
+        }
+        return runtime -> {
+            for (StatementClosure closure : closures) {
+                closure.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
+            }
+        };
+    }
+
 }
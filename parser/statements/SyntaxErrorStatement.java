@@ -2,7 +2,6 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 
@@ -10,7 +9,6 @@ public class SyntaxErrorStatement extends Statement {
 
     public SyntaxErrorStatement(Token start) {
         setToken(start);
-        addError(ErrorType.UNEXPECTED_TOKEN);
     }
 
     @Override
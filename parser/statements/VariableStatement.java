@@ -2,28 +2,34 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.eval.ExpressionClosure;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.tokenizer.Symbol;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 public class VariableStatement extends Statement {
     private Expression expression;
-    private String variableName;
+    private Symbol variableName;
     private CatscriptType explicitType;
     private CatscriptType type;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
     }
 
-    public String getVariableName() {
+    public Symbol getVariableName() {
         return variableName;
     }
 
-    public void setVariableName(String variableName) {
+    public void setVariableName(Symbol variableName) {
         this.variableName = variableName;
     }
 
@@ -68,13 +74,32 @@ public class VariableStatement extends Statement {
         return type;
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        slot = resolver.declare(variableName);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        runtime.setValue(variableName, expression.evaluate(runtime));
+        runtime.setValue(0, slot, expression.evaluate(runtime));
+
+    }
 
+    @Override
+    public StatementClosure compileClosure() {
+        ExpressionClosure value = expression.compileClosure();
+        int slot = this.slot;
+        return runtime -> runtime.setValue(0, slot, value.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int value = code.convert(expression.compileRegisters(code), expression.getType(), type);
+        code.move(slot, value, type);
     }
 
     @Override
@@ -87,24 +112,26 @@ public class VariableStatement extends Statement {
         if(isGlobal()){
             //store in a field
             code.addVarInstruction(Opcodes.ALOAD, 0);
-            if(getExpression().getType() == CatscriptType.INT || getExpression().getType() == CatscriptType.BOOLEAN) {
+            if(getType() == CatscriptType.INT || getType() == CatscriptType.BOOLEAN) {
                 expression.compile(code);
-                code.addField(variableName, "I");
-                code.addFieldInstruction(Opcodes.PUTFIELD, variableName, "I", code.getProgramInternalName());
+                code.addField(variableName.getName(), "I");
+                code.addFieldInstruction(Opcodes.PUTFIELD, variableName.getName(), "I", code.getProgramInternalName());
             }
             else {
                 expression.compile(code);
-                code.addField(variableName, "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType()) + ";");
-                code.addFieldInstruction(Opcodes.PUTFIELD, variableName, "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType()) + ";", code.getProgramInternalName());
+                box(code, expression.getType());
+                code.addField(variableName.getName(), "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType()) + ";");
+                code.addFieldInstruction(Opcodes.PUTFIELD, variableName.getName(), "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType()) + ";", code.getProgramInternalName());
             }
         } else {
             Integer localSlot = code.createLocalStorageSlotFor(variableName);
-            if(getExpression().getType() == CatscriptType.INT || getExpression().getType() == CatscriptType.BOOLEAN) {
+            if(getType() == CatscriptType.INT || getType() == CatscriptType.BOOLEAN) {
                 expression.compile(code);
                 code.addVarInstruction(Opcodes.ISTORE, localSlot);
             }
             else{
                 expression.compile(code);
+                box(code, expression.getType());
                 code.addVarInstruction(Opcodes.ASTORE, localSlot);
             }
         }
@@ -0,0 +1,81 @@
+package edu.montana.csci.csci468.test;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Runs one corpus of programs on every backend that can run whole programs and checks they all
+// print the same thing, run with java edu.montana.csci.csci468.test.EngineAgreementTest
+public class EngineAgreementTest {
+
+    static final String[][] CORPUS = {
+            {"print(1 == 1)\nprint(1 != 1)\nprint(1 == 2)\nprint(1 != 2)", "true\nfalse\nfalse\ntrue\n"},
+            {"var x = 3\nprint(x == 3)\nprint(x + 1 == 3)", "true\nfalse\n"},
+            {"print(true == true)\nprint(true == false)\nprint(1 < 2 == true)", "true\nfalse\ntrue\n"},
+            {"print(\"a\" == \"a\")\nprint(\"a\" != \"b\")\nprint(\"a\" + 1 == \"a1\")", "true\ntrue\ntrue\n"},
+            {"print(null == null)\nprint([1, 2] == [1, 2])\nprint([1] != [2])", "true\ntrue\ntrue\n"},
+            {"var o : object = 1\nprint(o == 1)\nprint(o == \"1\")", "true\nfalse\n"},
+            {"function g(x : int) : int { for (i in [1, 2, 3]) { if (i == 2) { return i * x } } return 0 }\n" +
+                    "print(g(5))", "10\n"},
+            {"for (i in [1, 2, 3]) { if (i != 2) { print(i) } }", "1\n3\n"},
+            {"function same(a : object, b : object) : bool { return a == b }\n" +
+                    "print(same(1, 1))\nprint(same(1, \"x\"))", "true\nfalse\n"},
+            {"function fib(n : int) : int { if (n <= 1) { return n } else { return fib(n - 1) + fib(n - 2) } }\n" +
+                    "print(fib(15))", "610\n"},
+            {"var s = \"\"\nfor (i in [1, 2, 3]) { s = s + i }\nprint(s)", "123\n"},
+            {"var x = 1\nif (x > 1) { print(\"big\") } else { print(\"small\") }", "small\n"},
+            {"print(-(3 + 4) * 2)\nprint(not (1 >= 2))", "-14\ntrue\n"},
+    };
+
+    public static void main(String[] args) {
+        Map<String, Function<CatScriptProgram, String>> engines = new LinkedHashMap<>();
+        engines.put("execute", program -> {
+            program.execute();
+            return program.getOutput();
+        });
+        engines.put("closures", program -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            program.compileClosure().execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("registers", program -> {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            new RegisterCompiler(program).compile().execute(runtime);
+            return runtime.getOutput();
+        });
+        engines.put("bytecode", program -> {
+            CatScriptProgram compiled = new ByteCodeGenerator(program).compileToBytecode();
+            compiled.execute();
+            return compiled.getOutput();
+        });
+
+        int failures = 0;
+        for (String[] entry : CORPUS) {
+            for (Map.Entry<String, Function<CatScriptProgram, String>> engine : engines.entrySet()) {
+                String output;
+                try {
+                    CatScriptProgram program = new CatScriptParser().parse(entry[0]);
+                    program.verify();
+                    output = engine.getValue().apply(program);
+                } catch (RuntimeException | Error e) {
+                    output = e.toString();
+                }
+                if (!entry[1].equals(output)) {
+                    failures++;
+                    System.out.println(engine.getKey() + " printed\n" + output + "\ninstead of\n" + entry[1] +
+                            "\nfor\n" + entry[0] + "\n");
+                }
+            }
+        }
+        if (failures > 0) {
+            throw new AssertionError(failures + " engine runs disagreed with the corpus");
+        }
+        System.out.println("EngineAgreementTest passed, " + CORPUS.length + " programs on " + engines.size() + " engines");
+    }
+}
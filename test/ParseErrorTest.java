@@ -0,0 +1,109 @@
+package edu.montana.csci.csci468.test;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CharSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Regression checks for syntax error reporting, run with
+// java edu.montana.csci.csci468.test.ParseErrorTest
+public class ParseErrorTest {
+
+    public static void main(String[] args) {
+        unterminatedStringRendersItsMessage();
+        caretSitsUnderTheBadToken();
+        truncatedCallReportsOneError();
+        nonAsciiErrorsMatchAcrossSources();
+        System.out.println("ParseErrorTest passed");
+    }
+
+    static void unterminatedStringRendersItsMessage() {
+        String message = messageFor("print(\"unterminated");
+        check(message.contains("Line 1:print(\"unterminated\n"), message);
+        check(message.contains("\n" + " ".repeat("Line 1:print(\"".length()) + "^\n"), message);
+
+        message = messageFor("var x = 1\nprint(\"a\nb");
+        check(message.contains("Line 2:print(\"a\n"), message);
+    }
+
+    static void caretSitsUnderTheBadToken() {
+        String message = messageFor("var x = 1\nprint(x +)");
+        check(message.contains("Line 2:print(x +)\n" + " ".repeat("Line 2:print(x +".length()) + "^\n"), message);
+    }
+
+    static void truncatedCallReportsOneError() {
+        List<ParseError> errors = errorsFor("print(");
+        check(errors.size() == 1, errors.size() + " errors for print(");
+    }
+
+    // a byte buffer or mapped file is decoded, so its errors sit where the String's do
+    static void nonAsciiErrorsMatchAcrossSources() {
+        String[] sources = {
+                "print(\"\u0117\") \u0117",
+                "var x = \"\u65e5\u672c\" + \ud83d\ude00\nprint(y)",
+                "// \u00e9t\u00e9\nprint(1 +)\n\u00e9",
+        };
+        for (String source : sources) {
+            String expected = messageFor(source);
+            byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            String fromBuffer = messageFor(new CatScriptParser().parse(CharSource.of(ByteBuffer.wrap(bytes))));
+            check(expected.equals(fromBuffer), fromBuffer + "\ninstead of\n" + expected);
+            try {
+                Path file = Files.createTempFile("catscript", ".cat");
+                try {
+                    Files.write(file, bytes);
+                    String fromFile = messageFor(new CatScriptParser().parse(CharSource.map(file)));
+                    check(expected.equals(fromFile), fromFile + "\ninstead of\n" + expected);
+                } finally {
+                    Files.delete(file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    //============================================================
+    //  Helpers
+    //============================================================
+
+    static ParseErrorException verify(String source) {
+        return verify(new CatScriptParser().parse(source));
+    }
+
+    static ParseErrorException verify(CatScriptProgram program) {
+        try {
+            program.verify();
+        } catch (ParseErrorException e) {
+            return e;
+        }
+        throw new AssertionError("expected parse errors");
+    }
+
+    static List<ParseError> errorsFor(String source) {
+        return verify(source).getErrors();
+    }
+
+    static String messageFor(String source) {
+        return verify(source).getMessage();
+    }
+
+    static String messageFor(CatScriptProgram program) {
+        return verify(program).getMessage();
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
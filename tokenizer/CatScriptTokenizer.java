@@ -1,19 +1,77 @@
 package edu.montana.csci.csci468.tokenizer;
 
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class CatScriptTokenizer {
 
     TokenList tokenList;
-    String src;
+    CharSource src;
     int postion = 0;
     int line = 1;
     int lineOffset = 0;
 
+    public enum ScannerType {
+        HAND_WRITTEN,
+        TABLE_DRIVEN
+    }
+
     public CatScriptTokenizer(String source) {
+        this(source, ScannerType.HAND_WRITTEN);
+    }
+
+    public CatScriptTokenizer(String source, ScannerType scannerType) {
+        src = CharSource.of(source);
+        tokenList = new TokenList(this, estimateTokenCount(source.length()));
+        scan(source, scannerType);
+    }
+
+    // large sources are split into chunks that are scanned in parallel on the given pool
+    public CatScriptTokenizer(String source, ScannerType scannerType, ForkJoinPool pool) {
+        src = CharSource.of(source);
+        if (!ParallelTokenizer.worthSplitting(source, pool)) {
+            tokenList = new TokenList(this, estimateTokenCount(source.length()));
+            scan(source, scannerType);
+        } else {
+            // sized once the chunks have been counted
+            tokenList = new TokenList(this);
+            new ParallelTokenizer(source, scannerType, pool).tokenize(tokenList);
+        }
+    }
+
+    // tokens are scanned as the token list is read, so neither the whole
+    // text nor the whole token list has to be held at once
+    public CatScriptTokenizer(CharSource source) {
         src = source;
         tokenList = new TokenList(this);
-        tokenize();
+        tokenList.streaming = true;
+    }
+
+    // re-tokenizes the source of a previous token list after replacing removedLength characters
+    // at offset with insertedText, reusing the tokens the edit cannot have affected. The new list
+    // takes over the previous one's text and storage, so the edit costs about as much as the text
+    // it rescans plus the distance from the last edit, and the previous list can't be used after
+    public CatScriptTokenizer(TokenList previous, int offset, int removedLength, String insertedText) {
+        CharSource.GapSource source = CharSource.editable(previous.getTokenizer().src);
+        src = source;
+        tokenList = previous.edit(this, source);
+        retokenize(source, offset, removedLength, insertedText);
+    }
+
+    // typical scripts average a token every four to five characters, starting near
+    // that saves most of the array copying on large inputs
+    private static int estimateTokenCount(int sourceLength) {
+        return sourceLength / 5;
+    }
+
+    private void scan(String source, ScannerType scannerType) {
+        if (scannerType == ScannerType.TABLE_DRIVEN) {
+            new TableDrivenScanner(source, tokenList).scan();
+        } else {
+            tokenize();
+        }
     }
 
     private void tokenize() {
@@ -22,7 +80,69 @@ public class CatScriptTokenizer {
             scanToken();
             consumeWhitespace();
         }
-        tokenList.addToken(EOF, "<EOF>", postion, postion, line, lineOffset);
+        tokenList.addToken(EOF, postion, postion, line, lineOffset);
+    }
+
+    // scans until at least one more token exists, adding the EOF token once the input runs out
+    void scanNext() {
+        int scanned = tokenList.size();
+        consumeWhitespace();
+        while (!tokenizationEnd() && tokenList.size() == scanned) {
+            scanToken();
+            consumeWhitespace();
+        }
+        if (tokenList.size() == scanned) {
+            tokenList.addToken(EOF, postion, postion, line, lineOffset);
+        }
+    }
+
+    private void retokenize(CharSource.GapSource source, int offset, int removedLength, String insertedText) {
+        int editEnd = offset + insertedText.length();
+
+        // restart at the last token ending before the edit so that comments and quotes
+        // between it and the edit are scanned again, strings can't be resumed mid-way
+        int restart = tokenList.firstTokenEndingAtOrAfter(offset) - 1;
+        while (restart >= 0 && (tokenList.getType(restart) == STRING || tokenList.getType(restart) == ERROR)) {
+            restart--;
+        }
+        if (restart >= 0) {
+            postion = tokenList.getStart(restart);
+            line = tokenList.getLine(restart);
+            lineOffset = columnBefore(tokenList, restart);
+        } else {
+            restart = 0;
+        }
+        // the tokens from the restart on are compared against what is scanned and dropped or kept
+        tokenList.moveGaps(restart, postion);
+        Map<Integer, String> trailingErrors = tokenList.takeErrorsFrom(restart);
+        source.edit(offset, removedLength, insertedText);
+        tokenList.textEdited(insertedText.length() - removedLength);
+
+        // scan until a token after the edit lines up with one after the gap, the rest are kept as they are
+        consumeWhitespace();
+        while (!tokenizationEnd()) {
+            int count = tokenList.size();
+            int scanned = tokenList.gapIndex();
+            scanToken();
+            if (tokenList.size() > count && tokenList.getStart(scanned) >= editEnd &&
+                    tokenList.resynchronize(scanned, tokenList.getStart(scanned), trailingErrors)) {
+                return;
+            }
+            consumeWhitespace();
+        }
+        tokenList.dropAfterGap();
+        tokenList.addToken(EOF, postion, postion, line, lineOffset);
+    }
+
+    // the line offset only advances while scanning identifiers, so the column the
+    // scanner was at when it started a token depends on what kind of token it was
+    private int columnBefore(TokenList tokens, int index) {
+        int length = tokens.getEnd(index) - tokens.getStart(index);
+        if (isAlpha(src.charAt(tokens.getStart(index)))) {
+            return tokens.getLineOffset(index);
+        } else {
+            return tokens.getLineOffset(index) + length;
+        }
     }
 
     private void scanToken() {
@@ -53,19 +173,20 @@ public class CatScriptTokenizer {
                     }
                 }
                 if(!tokenizationEnd()){
-                    takeChar();
+                    if (takeChar() == '\n') {
+                        tokenList.addLineStart(postion);
+                    }
                 } else {
                     break;
                 }
             }
-            String value = src.substring(start, postion);
             if (matchAndConsume('"')) {
                 isQuoteClosed++;
             }
             if (isQuoteClosed % 2 == 0){
-                tokenList.addToken(STRING, src.substring(start, postion-1), start, postion, line, lineOffset);
+                tokenList.addToken(STRING, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(ERROR, "<Missing Token: \"]>", start, postion, line, lineOffset);
+                tokenList.addErrorToken("<Missing Token: \"]>", start, postion, line, lineOffset);
             }
             return true;
         } else {
@@ -80,12 +201,8 @@ public class CatScriptTokenizer {
                 takeChar();
                 lineOffset++;
             }
-            String value = src.substring(start, postion);
-            if (KEYWORDS.containsKey(value)) {
-                tokenList.addToken(KEYWORDS.get(value), value, start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(IDENTIFIER, value, start, postion, line, lineOffset);
-            }
+            // keywords are matched against the source in place, identifiers keep no copy of their text
+            tokenList.addToken(TableDrivenScanner.keywordOrIdentifier(src, start, postion), start, postion, line, lineOffset);
             return true;
         } else {
             return false;
@@ -98,7 +215,7 @@ public class CatScriptTokenizer {
             while (isDigit(peek())) {
                 takeChar();
             }
-            tokenList.addToken(INTEGER, src.substring(start, postion), start, postion, line, lineOffset);
+            tokenList.addToken(INTEGER, start, postion, line, lineOffset);
             return true;
         } else {
             return false;
@@ -110,60 +227,60 @@ public class CatScriptTokenizer {
         //      - implement comments <- Completed
         int start = postion;
         if(matchAndConsume('+')) {
-            tokenList.addToken(PLUS, "+", start, postion, line, lineOffset);
+            tokenList.addToken(PLUS, start, postion, line, lineOffset);
         } else if(matchAndConsume('-')) {
-            tokenList.addToken(MINUS, "-", start, postion, line, lineOffset);
+            tokenList.addToken(MINUS, start, postion, line, lineOffset);
         } else if(matchAndConsume('/')) {
             if (matchAndConsume('/')) {
                 while (peek() != '\n' && !tokenizationEnd()) {
                     takeChar();
                 }
             } else {
-                tokenList.addToken(SLASH, "-", start, postion, line, lineOffset);
+                tokenList.addToken(SLASH, start, postion, line, lineOffset);
             }
         } else if(matchAndConsume('=')) {
             if (matchAndConsume('=')) {
-                tokenList.addToken(EQUAL_EQUAL, "==", start, postion, line, lineOffset);
+                tokenList.addToken(EQUAL_EQUAL, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(EQUAL, "=", start, postion, line, lineOffset);
+                tokenList.addToken(EQUAL, start, postion, line, lineOffset);
             }
         } else if(matchAndConsume('(')){
-            tokenList.addToken(LEFT_PAREN, "(", start, postion, line, lineOffset);
+            tokenList.addToken(LEFT_PAREN, start, postion, line, lineOffset);
         } else if(matchAndConsume(')')){
-            tokenList.addToken(RIGHT_PAREN, ")", start, postion, line, lineOffset);
+            tokenList.addToken(RIGHT_PAREN, start, postion, line, lineOffset);
         } else if(matchAndConsume('{')){
-            tokenList.addToken(LEFT_BRACE, "{", start, postion, line, lineOffset);
+            tokenList.addToken(LEFT_BRACE, start, postion, line, lineOffset);
         } else if(matchAndConsume('}')){
-            tokenList.addToken(RIGHT_BRACE, "}", start, postion, line, lineOffset);
+            tokenList.addToken(RIGHT_BRACE, start, postion, line, lineOffset);
         } else if(matchAndConsume('[')){
-            tokenList.addToken(LEFT_BRACKET, "[", start, postion, line, lineOffset);
+            tokenList.addToken(LEFT_BRACKET, start, postion, line, lineOffset);
         } else if(matchAndConsume(']')){
-            tokenList.addToken(RIGHT_BRACKET, "]", start, postion, line, lineOffset);
+            tokenList.addToken(RIGHT_BRACKET, start, postion, line, lineOffset);
         } else if(matchAndConsume(':')){
-            tokenList.addToken(COLON, ":", start, postion, line, lineOffset);
+            tokenList.addToken(COLON, start, postion, line, lineOffset);
         } else if(matchAndConsume(',')){
-            tokenList.addToken(COMMA, ",", start, postion, line, lineOffset);
+            tokenList.addToken(COMMA, start, postion, line, lineOffset);
         } else if(matchAndConsume('.')){
-            tokenList.addToken(DOT, ".", start, postion, line, lineOffset);
+            tokenList.addToken(DOT, start, postion, line, lineOffset);
         } else if(matchAndConsume('*')){
-            tokenList.addToken(STAR, "*", start, postion, line, lineOffset);
+            tokenList.addToken(STAR, start, postion, line, lineOffset);
         } else if(matchAndConsume('!')){
             if(matchAndConsume('='))
-                tokenList.addToken(BANG_EQUAL, "!=", start, postion, line, lineOffset);
+                tokenList.addToken(BANG_EQUAL, start, postion, line, lineOffset);
         } else if(matchAndConsume('>')){
             if(matchAndConsume('=')){
-                tokenList.addToken(GREATER_EQUAL, ">=", start, postion, line, lineOffset);
+                tokenList.addToken(GREATER_EQUAL, start, postion, line, lineOffset);
             } else{
-                tokenList.addToken(GREATER, ">", start, postion, line, lineOffset);
+                tokenList.addToken(GREATER, start, postion, line, lineOffset);
             }
         } else if(matchAndConsume('<')){
             if(matchAndConsume('=')){
-                tokenList.addToken(LESS_EQUAL, "<=", start, postion, line, lineOffset);
+                tokenList.addToken(LESS_EQUAL, start, postion, line, lineOffset);
             } else{
-                tokenList.addToken(LESS, "<", start, postion, line, lineOffset);
+                tokenList.addToken(LESS, start, postion, line, lineOffset);
             }
         } else {
-            tokenList.addToken(ERROR, "<Unexpected Token: [" + takeChar() + "]>", start, postion, line, lineOffset);
+            tokenList.addErrorToken("<Unexpected Token: [" + takeChar() + "]>", start, postion, line, lineOffset);
         }
     }
 
@@ -179,6 +296,7 @@ public class CatScriptTokenizer {
                 lineOffset = 0;
                 postion++;
                 line++;
+                tokenList.addLineStart(postion);
                 continue;
             }
             break;
@@ -215,7 +333,7 @@ public class CatScriptTokenizer {
     }
 
     private boolean tokenizationEnd() {
-        return postion >= src.length();
+        return !src.has(postion);
     }
 
     public boolean matchAndConsume(char c) {
@@ -232,12 +350,13 @@ public class CatScriptTokenizer {
 
     @Override
     public String toString() {
+        String text = src.toString();
         if (tokenizationEnd()) {
-            return src + "-->[]<--";
+            return text + "-->[]<--";
         } else {
-            return src.substring(0, postion) + "-->[" + peek() + "]<--" +
-                    ((postion == src.length() - 1) ? "" :
-                            src.substring(postion + 1, src.length() - 1));
+            return text.substring(0, postion) + "-->[" + peek() + "]<--" +
+                    ((postion == text.length() - 1) ? "" :
+                            text.substring(postion + 1, text.length() - 1));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,312 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// The text a CatScriptTokenizer scans. Positions are absolute from the start of the input,
+// streaming sources pull more input as the tokenizer asks for it and may drop text that
+// has been released.
+public abstract class CharSource {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    public static CharSource of(String source) {
+        return new StringSource(source);
+    }
+
+    public static CharSource of(Reader reader) {
+        return new ReaderSource(reader);
+    }
+
+    public static CharSource of(ReadableByteChannel channel) {
+        return new ReaderSource(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    // the buffer's UTF-8 is decoded as the tokenizer reaches it, so positions are char offsets as
+    // they are for a String and only a window of the decoded text is held at a time
+    public static CharSource of(ByteBuffer buffer) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new ReaderSource(Channels.newReader(new ByteBufferChannel(buffer.duplicate()), decoder, CHUNK_SIZE));
+    }
+
+    public static CharSource map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the source a token list edit scans, text that is edited again is changed in place
+    static GapSource editable(CharSource source) {
+        return source instanceof GapSource ? (GapSource) source : new GapSource(source.toString());
+    }
+
+    abstract boolean has(int position);
+
+    abstract char charAt(int position);
+
+    abstract String substring(int start, int end);
+
+    boolean isAvailable(int position) {
+        return true;
+    }
+
+    // text before position is no longer needed by the tokenizer
+    void release(int position) {
+    }
+
+    boolean regionMatches(int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!has(start + i) || charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class StringSource extends CharSource {
+        private final String source;
+
+        StringSource(String source) {
+            this.source = source;
+        }
+
+        @Override
+        boolean has(int position) {
+            return position < source.length();
+        }
+
+        @Override
+        char charAt(int position) {
+            return source.charAt(position);
+        }
+
+        @Override
+        String substring(int start, int end) {
+            return source.substring(start, end);
+        }
+
+        @Override
+        boolean regionMatches(int start, String value) {
+            return source.regionMatches(start, value, 0, value.length());
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+
+    // Text held in a gap buffer, the gap follows the edits so that a run of edits near each other
+    // only moves the characters between them
+    static class GapSource extends CharSource {
+        private char[] buffer;
+        private int gapStart;
+        private int gapEnd;
+
+        GapSource(String source) {
+            buffer = new char[Math.max(source.length() + source.length() / 8, CHUNK_SIZE)];
+            source.getChars(0, source.length(), buffer, 0);
+            gapStart = source.length();
+            gapEnd = buffer.length;
+        }
+
+        int length() {
+            return buffer.length - (gapEnd - gapStart);
+        }
+
+        void edit(int offset, int removedLength, String insertedText) {
+            moveGap(offset);
+            gapEnd += removedLength;
+            int inserted = insertedText.length();
+            if (gapEnd - gapStart < inserted) {
+                int after = buffer.length - gapEnd;
+                char[] grown = new char[Math.max(buffer.length * 2, length() + inserted + CHUNK_SIZE)];
+                System.arraycopy(buffer, 0, grown, 0, gapStart);
+                System.arraycopy(buffer, gapEnd, grown, grown.length - after, after);
+                gapEnd = grown.length - after;
+                buffer = grown;
+            }
+            insertedText.getChars(0, inserted, buffer, gapStart);
+            gapStart += inserted;
+        }
+
+        private void moveGap(int offset) {
+            if (offset < gapStart) {
+                int moved = gapStart - offset;
+                System.arraycopy(buffer, offset, buffer, gapEnd - moved, moved);
+                gapStart -= moved;
+                gapEnd -= moved;
+            } else if (offset > gapStart) {
+                int moved = offset - gapStart;
+                System.arraycopy(buffer, gapEnd, buffer, gapStart, moved);
+                gapStart += moved;
+                gapEnd += moved;
+            }
+        }
+
+        @Override
+        boolean has(int position) {
+            return position < length();
+        }
+
+        @Override
+        char charAt(int position) {
+            return position < gapStart ? buffer[position] : buffer[position + gapEnd - gapStart];
+        }
+
+        @Override
+        String substring(int start, int end) {
+            if (end <= gapStart) {
+                return new String(buffer, start, end - start);
+            } else if (start >= gapStart) {
+                return new String(buffer, start + gapEnd - gapStart, end - start);
+            }
+            return new String(buffer, start, gapStart - start) + new String(buffer, gapEnd, end - gapStart);
+        }
+
+        @Override
+        public String toString() {
+            return substring(0, length());
+        }
+    }
+
+    // what the tokenizer of a token list that was edited into a new one is left reading
+    static final CharSource SUPERSEDED = new CharSource() {
+        @Override
+        boolean has(int position) {
+            throw superseded();
+        }
+
+        @Override
+        char charAt(int position) {
+            throw superseded();
+        }
+
+        @Override
+        String substring(int start, int end) {
+            throw superseded();
+        }
+
+        private IllegalStateException superseded() {
+            return new IllegalStateException("This token list was edited, use the token list the edit produced");
+        }
+    };
+
+    // reads a byte buffer from its position to its limit
+    private static class ByteBufferChannel implements ReadableByteChannel {
+        private final ByteBuffer buffer;
+        private boolean open = true;
+
+        ByteBufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(destination.remaining(), buffer.remaining());
+            destination.put(buffer.slice(buffer.position(), read));
+            buffer.position(buffer.position() + read);
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    private static class ReaderSource extends CharSource {
+        private final Reader reader;
+        private char[] buffer = new char[CHUNK_SIZE];
+        // absolute positions of the first buffered char and of the end of the buffered text
+        private int bufferStart = 0;
+        private int bufferEnd = 0;
+        private int released = 0;
+        private boolean exhausted = false;
+
+        ReaderSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        boolean has(int position) {
+            while (position >= bufferEnd && !exhausted) {
+                fill();
+            }
+            return position < bufferEnd;
+        }
+
+        @Override
+        char charAt(int position) {
+            return buffer[position - bufferStart];
+        }
+
+        @Override
+        String substring(int start, int end) {
+            return new String(buffer, start - bufferStart, end - start);
+        }
+
+        @Override
+        boolean isAvailable(int position) {
+            return position >= bufferStart;
+        }
+
+        @Override
+        void release(int position) {
+            released = Math.max(released, position);
+        }
+
+        private void fill() {
+            int buffered = bufferEnd - bufferStart;
+            if (buffered == buffer.length) {
+                int releasable = released - bufferStart;
+                if (releasable >= buffer.length / 2) {
+                    System.arraycopy(buffer, releasable, buffer, 0, buffered - releasable);
+                    bufferStart = released;
+                } else {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffered = bufferEnd - bufferStart;
+            }
+            try {
+                int read = reader.read(buffer, buffered, buffer.length - buffered);
+                if (read < 0) {
+                    exhausted = true;
+                    reader.close();
+                } else {
+                    bufferEnd += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, 0, bufferEnd - bufferStart);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.*;
+
+// Splits a large source at newlines, scans the chunks on a fork join pool and stitches their
+// tokens back together. The scanners reset the column at every newline and nothing but a string
+// carries on past one, so a chunk scanned on its own matches the sequential scan unless the
+// split before it fell inside a string. The chunk before such a split ends in an unterminated
+// string, and is scanned again together with the chunks after it until the string closes.
+// Nothing is scanned twice otherwise, and both the scanning and the stitching run on the pool.
+class ParallelTokenizer {
+
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final String source;
+    private final CatScriptTokenizer.ScannerType scannerType;
+    private final ForkJoinPool pool;
+
+    ParallelTokenizer(String source, CatScriptTokenizer.ScannerType scannerType, ForkJoinPool pool) {
+        this.source = source;
+        this.scannerType = scannerType;
+        this.pool = pool;
+    }
+
+    static boolean worthSplitting(String source, ForkJoinPool pool) {
+        return pool.getParallelism() > 1 && source.length() >= 2 * MIN_CHUNK_SIZE;
+    }
+
+    void tokenize(TokenList tokenList) {
+        int[] splits = findSplits();
+        int chunks = splits.length - 1;
+        List<ForkJoinTask<TokenList>> scans = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int start = splits[i];
+            int end = splits[i + 1];
+            scans.add(pool.submit(() -> scan(start, end)));
+        }
+
+        List<TokenList> pieces = new ArrayList<>();
+        List<Integer> pieceStarts = new ArrayList<>();
+        int first = 0;
+        while (first < chunks) {
+            TokenList piece = scans.get(first).join();
+            int last = first;
+            // the split after the piece is inside a string, take in twice as many chunks each
+            // time so a string running over many of them is only rescanned a linear amount
+            for (int more = 1; last + 1 < chunks && endsInsideString(piece, splits[last + 1] - splits[first]); more *= 2) {
+                last = Math.min(chunks - 1, last + more);
+                piece = scan(splits[first], splits[last + 1]);
+            }
+            pieces.add(piece);
+            pieceStarts.add(splits[first]);
+            first = last + 1;
+        }
+        stitch(tokenList, pieces, pieceStarts);
+    }
+
+    private TokenList scan(int start, int end) {
+        return new CatScriptTokenizer(source.substring(start, end), scannerType).getTokens();
+    }
+
+    // only an unterminated string runs into the end of a chunk, every chunk ends with a newline
+    private static boolean endsInsideString(TokenList piece, int length) {
+        int last = piece.size() - 2;
+        return last >= 0 && piece.types[last] == ERROR.ordinal() && piece.ends[last] == length;
+    }
+
+    // each piece's tokens, less its EOF unless it is the last, and its line starts go at offsets
+    // worked out up front, so the pieces are copied in side by side
+    private void stitch(TokenList tokenList, List<TokenList> pieces, List<Integer> pieceStarts) {
+        int count = pieces.size();
+        int[] slots = new int[count + 1];
+        int[] lineSlots = new int[count + 1];
+        int[] lineShifts = new int[count + 1];
+        lineSlots[0] = 1;
+        for (int i = 0; i < count; i++) {
+            TokenList piece = pieces.get(i);
+            slots[i + 1] = slots[i] + (i == count - 1 ? piece.size() : piece.size() - 1);
+            lineSlots[i + 1] = lineSlots[i] + piece.lineCount - 1;
+            lineShifts[i + 1] = lineShifts[i] + piece.lastLine - 1;
+        }
+        tokenList.reserve(slots[count], lineSlots[count]);
+        List<ForkJoinTask<?>> copies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            copies.add(pool.submit(() -> tokenList.copyPiece(pieces.get(index), slots[index + 1] - slots[index],
+                    slots[index], lineSlots[index], pieceStarts.get(index), lineShifts[index])));
+        }
+        for (int i = 0; i < count; i++) {
+            copies.get(i).join();
+            tokenList.copyPieceErrors(pieces.get(i), slots[i + 1] - slots[i], slots[i]);
+        }
+        tokenList.piecesCopied(slots[count], lineSlots[count]);
+    }
+
+    // the start of each chunk, the first newline after every chunk size, then the source length
+    private int[] findSplits() {
+        int length = source.length();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<Integer> splits = new ArrayList<>();
+        splits.add(0);
+        int split = 0;
+        while (true) {
+            int newline = source.indexOf('\n', split + chunkSize);
+            if (newline < 0 || length - newline - 1 < MIN_CHUNK_SIZE) {
+                break;
+            }
+            split = newline + 1;
+            splits.add(split);
+        }
+        splits.add(length);
+        return splits.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
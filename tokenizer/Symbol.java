@@ -0,0 +1,35 @@
+package edu.montana.csci.csci468.tokenizer;
+
+// A canonical name handed out by a SymbolInterner. Every occurrence of a name within one token
+// list maps to the same Symbol, so symbols compare by identity and their id can index tables.
+public final class Symbol {
+
+    private final String name;
+    private final int hash;
+    private final int id;
+
+    Symbol(String name, int hash, int id) {
+        this.name = name;
+        this.hash = hash;
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // ids are dense, starting at zero for each interner
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
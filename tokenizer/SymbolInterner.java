@@ -0,0 +1,78 @@
+package edu.montana.csci.csci468.tokenizer;
+
+// Maps regions of source text to canonical Symbols. A lookup hashes the characters in place,
+// so the text of a name is only copied out the first time it is seen.
+public class SymbolInterner {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Symbol[] table = new Symbol[INITIAL_CAPACITY];
+    private int size = 0;
+
+    Symbol intern(CharSource source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int length = end - start;
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        Symbol symbol;
+        while ((symbol = table[slot]) != null) {
+            if (symbol.hashCode() == hash && symbol.getName().length() == length && source.regionMatches(start, symbol.getName())) {
+                return symbol;
+            }
+            slot = (slot + 1) & mask;
+        }
+        symbol = new Symbol(source.substring(start, end), hash, size);
+        add(symbol);
+        return symbol;
+    }
+
+    public Symbol intern(String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        Symbol symbol;
+        while ((symbol = table[slot]) != null) {
+            if (symbol.hashCode() == hash && symbol.getName().equals(name)) {
+                return symbol;
+            }
+            slot = (slot + 1) & mask;
+        }
+        symbol = new Symbol(name, hash, size);
+        add(symbol);
+        return symbol;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void add(Symbol symbol) {
+        // keep the table at most half full so probe runs stay short
+        if (++size * 2 > table.length) {
+            Symbol[] old = table;
+            table = new Symbol[old.length * 2];
+            for (Symbol existing : old) {
+                if (existing != null) {
+                    insert(existing);
+                }
+            }
+        }
+        insert(symbol);
+    }
+
+    private void insert(Symbol symbol) {
+        int mask = table.length - 1;
+        int slot = spread(symbol.hashCode()) & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = symbol;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,259 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.*;
+
+// Produces the same tokens as the hand written scanner in CatScriptTokenizer, but classifies
+// each character through a lookup table and scans numbers, identifiers and punctuation by
+// walking a state transition table over those character classes.
+class TableDrivenScanner {
+
+    // character classes
+    private static final int OTHER = 0;
+    private static final int SPACE = 1;
+    private static final int NEWLINE = 2;
+    private static final int DIGIT = 3;
+    private static final int ALPHA = 4;
+    private static final int QUOTE = 5;
+    private static final int SLASH_CHAR = 6;
+    private static final int EQUAL_CHAR = 7;
+    private static final int BANG_CHAR = 8;
+    private static final int LESS_CHAR = 9;
+    private static final int GREATER_CHAR = 10;
+    private static final int SINGLE_CHAR = 11;
+    private static final int CLASS_COUNT = 12;
+
+    // scanner states, STOP means the token ends before the current character
+    private static final int STOP = -1;
+    private static final int START = 0;
+    private static final int IN_NUMBER = 1;
+    private static final int IN_IDENTIFIER = 2;
+    private static final int AFTER_SLASH = 3;
+    private static final int AFTER_EQUAL = 4;
+    private static final int AFTER_BANG = 5;
+    private static final int AFTER_LESS = 6;
+    private static final int AFTER_GREATER = 7;
+    private static final int AFTER_SINGLE = 8;
+    private static final int EQUAL_EQUAL_SEEN = 9;
+    private static final int BANG_EQUAL_SEEN = 10;
+    private static final int LESS_EQUAL_SEEN = 11;
+    private static final int GREATER_EQUAL_SEEN = 12;
+    private static final int IN_COMMENT = 13;
+    private static final int STATE_COUNT = 14;
+
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    private static final TokenType[] SINGLE_CHAR_TYPES = new TokenType[128];
+    private static final int[] TRANSITIONS = new int[STATE_COUNT * CLASS_COUNT];
+    // what each state produces when the token stops there, a lone '!' produces nothing
+    private static final TokenType[] ACCEPTS = new TokenType[STATE_COUNT];
+
+    // keywords are found with a perfect hash over the first char, last char and length
+    private static final int KEYWORD_SLOTS = 32;
+    private static final String[] KEYWORD_NAMES = new String[KEYWORD_SLOTS];
+    private static final TokenType[] KEYWORD_TYPES = new TokenType[KEYWORD_SLOTS];
+
+    static {
+        CHAR_CLASSES[' '] = SPACE;
+        CHAR_CLASSES['\t'] = SPACE;
+        CHAR_CLASSES['\r'] = SPACE;
+        CHAR_CLASSES['\n'] = NEWLINE;
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASSES[c] = DIGIT;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASSES[c] = ALPHA;
+            CHAR_CLASSES[Character.toUpperCase(c)] = ALPHA;
+        }
+        CHAR_CLASSES['_'] = ALPHA;
+        CHAR_CLASSES['"'] = QUOTE;
+        CHAR_CLASSES['/'] = SLASH_CHAR;
+        CHAR_CLASSES['='] = EQUAL_CHAR;
+        CHAR_CLASSES['!'] = BANG_CHAR;
+        CHAR_CLASSES['<'] = LESS_CHAR;
+        CHAR_CLASSES['>'] = GREATER_CHAR;
+
+        single('+', PLUS);
+        single('-', MINUS);
+        single('*', STAR);
+        single('(', LEFT_PAREN);
+        single(')', RIGHT_PAREN);
+        single('{', LEFT_BRACE);
+        single('}', RIGHT_BRACE);
+        single('[', LEFT_BRACKET);
+        single(']', RIGHT_BRACKET);
+        single(':', COLON);
+        single(',', COMMA);
+        single('.', DOT);
+
+        Arrays.fill(TRANSITIONS, STOP);
+        transition(START, DIGIT, IN_NUMBER);
+        transition(START, ALPHA, IN_IDENTIFIER);
+        transition(START, SLASH_CHAR, AFTER_SLASH);
+        transition(START, EQUAL_CHAR, AFTER_EQUAL);
+        transition(START, BANG_CHAR, AFTER_BANG);
+        transition(START, LESS_CHAR, AFTER_LESS);
+        transition(START, GREATER_CHAR, AFTER_GREATER);
+        transition(START, SINGLE_CHAR, AFTER_SINGLE);
+        transition(IN_NUMBER, DIGIT, IN_NUMBER);
+        transition(IN_IDENTIFIER, ALPHA, IN_IDENTIFIER);
+        transition(IN_IDENTIFIER, DIGIT, IN_IDENTIFIER);
+        transition(AFTER_SLASH, SLASH_CHAR, IN_COMMENT);
+        transition(AFTER_EQUAL, EQUAL_CHAR, EQUAL_EQUAL_SEEN);
+        transition(AFTER_BANG, EQUAL_CHAR, BANG_EQUAL_SEEN);
+        transition(AFTER_LESS, EQUAL_CHAR, LESS_EQUAL_SEEN);
+        transition(AFTER_GREATER, EQUAL_CHAR, GREATER_EQUAL_SEEN);
+
+        ACCEPTS[IN_NUMBER] = INTEGER;
+        ACCEPTS[IN_IDENTIFIER] = IDENTIFIER;
+        ACCEPTS[AFTER_SLASH] = SLASH;
+        ACCEPTS[AFTER_EQUAL] = EQUAL;
+        ACCEPTS[AFTER_LESS] = LESS;
+        ACCEPTS[AFTER_GREATER] = GREATER;
+        ACCEPTS[EQUAL_EQUAL_SEEN] = EQUAL_EQUAL;
+        ACCEPTS[BANG_EQUAL_SEEN] = BANG_EQUAL;
+        ACCEPTS[LESS_EQUAL_SEEN] = LESS_EQUAL;
+        ACCEPTS[GREATER_EQUAL_SEEN] = GREATER_EQUAL;
+
+        for (Map.Entry<String, TokenType> keyword : KEYWORDS.entrySet()) {
+            String name = keyword.getKey();
+            int slot = keywordSlot(name.charAt(0), name.charAt(name.length() - 1), name.length());
+            if (KEYWORD_NAMES[slot] != null) {
+                throw new IllegalStateException("Keywords " + name + " and " + KEYWORD_NAMES[slot] + " share a hash slot");
+            }
+            KEYWORD_NAMES[slot] = name;
+            KEYWORD_TYPES[slot] = keyword.getValue();
+        }
+    }
+
+    private static void single(char c, TokenType type) {
+        CHAR_CLASSES[c] = SINGLE_CHAR;
+        SINGLE_CHAR_TYPES[c] = type;
+    }
+
+    private static void transition(int state, int charClass, int nextState) {
+        TRANSITIONS[state * CLASS_COUNT + charClass] = nextState;
+    }
+
+    private static int keywordSlot(char first, char last, int length) {
+        return (first + last + length) & (KEYWORD_SLOTS - 1);
+    }
+
+    private static int classOf(char c) {
+        return c < 128 ? CHAR_CLASSES[c] : OTHER;
+    }
+
+    private final String src;
+    private final TokenList tokenList;
+
+    TableDrivenScanner(String src, TokenList tokenList) {
+        this.src = src;
+        this.tokenList = tokenList;
+    }
+
+    void scan() {
+        int length = src.length();
+        int position = 0;
+        int line = 1;
+        // mirrors the hand written scanner, which only advances the offset over whitespace and identifiers
+        int lineOffset = 0;
+        while (position < length) {
+            char c = src.charAt(position);
+            int charClass = classOf(c);
+            if (charClass == SPACE) {
+                position++;
+                lineOffset++;
+                continue;
+            }
+            if (charClass == NEWLINE) {
+                position++;
+                line++;
+                lineOffset = 0;
+                tokenList.addLineStart(position);
+                continue;
+            }
+            int start = position;
+            if (charClass == QUOTE) {
+                position = scanString(position + 1, line, lineOffset);
+                continue;
+            }
+            if (charClass == OTHER) {
+                position++;
+                tokenList.addErrorToken("<Unexpected Token: [" + c + "]>", start, position, line, lineOffset);
+                continue;
+            }
+
+            int state = TRANSITIONS[START * CLASS_COUNT + charClass];
+            position++;
+            while (position < length) {
+                int next = TRANSITIONS[state * CLASS_COUNT + classOf(src.charAt(position))];
+                if (next == STOP) {
+                    break;
+                }
+                state = next;
+                position++;
+            }
+
+            if (state == IN_COMMENT) {
+                while (position < length && src.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (state == IN_IDENTIFIER) {
+                lineOffset += position - start;
+                tokenList.addToken(keywordOrIdentifier(start, position), start, position, line, lineOffset);
+            } else if (state == AFTER_SINGLE) {
+                tokenList.addToken(SINGLE_CHAR_TYPES[c], start, position, line, lineOffset);
+            } else if (ACCEPTS[state] != null) {
+                tokenList.addToken(ACCEPTS[state], start, position, line, lineOffset);
+            }
+        }
+        tokenList.addToken(EOF, position, position, line, lineOffset);
+    }
+
+    private int scanString(int start, int line, int lineOffset) {
+        int length = src.length();
+        int position = start;
+        while (position < length && src.charAt(position) != '"') {
+            if (src.charAt(position) == '\\') {
+                position++;
+            }
+            if (position < length) {
+                if (src.charAt(position) == '\n') {
+                    tokenList.addLineStart(position + 1);
+                }
+                position++;
+            }
+        }
+        if (position < length) {
+            position++;
+            tokenList.addToken(STRING, start, position, line, lineOffset);
+        } else {
+            tokenList.addErrorToken("<Missing Token: \"]>", start, position, line, lineOffset);
+        }
+        return position;
+    }
+
+    // the hand written scanner's lookup, on whatever text it is reading
+    static TokenType keywordOrIdentifier(CharSource src, int start, int end) {
+        int length = end - start;
+        int slot = keywordSlot(src.charAt(start), src.charAt(end - 1), length);
+        String keyword = KEYWORD_NAMES[slot];
+        if (keyword != null && keyword.length() == length && src.regionMatches(start, keyword)) {
+            return KEYWORD_TYPES[slot];
+        } else {
+            return IDENTIFIER;
+        }
+    }
+
+    private TokenType keywordOrIdentifier(int start, int end) {
+        int length = end - start;
+        int slot = keywordSlot(src.charAt(start), src.charAt(end - 1), length);
+        String keyword = KEYWORD_NAMES[slot];
+        if (keyword != null && keyword.length() == length && src.regionMatches(start, keyword, 0, length)) {
+            return KEYWORD_TYPES[slot];
+        } else {
+            return IDENTIFIER;
+        }
+    }
+}
@@ -7,17 +7,18 @@ public class Token {
     int line;
     int lineOffset;
     String stringValue;
+    Symbol symbol;
     TokenType type;
-    private final CatScriptTokenizer tokenizer;
+    private final TokenList tokens;
 
-    public Token(int start, int end, int line, int lineOffset, String stringValue, TokenType type, CatScriptTokenizer tokenizer) {
+    public Token(int start, int end, int line, int lineOffset, String stringValue, TokenType type, TokenList tokens) {
         this.start = start;
         this.end = end;
         this.line = line;
         this.lineOffset = lineOffset;
         this.stringValue = stringValue;
         this.type = type;
-        this.tokenizer = tokenizer;
+        this.tokens = tokens;
     }
 
     public int getStart() {
@@ -37,16 +38,27 @@ public class Token {
     }
 
     public String getStringValue() {
+        if (stringValue == null) {
+            stringValue = tokens.lexeme(type, start, end);
+        }
         return stringValue;
     }
 
+    // the interned form of an identifier or string literal
+    public Symbol getSymbol() {
+        if (symbol == null) {
+            symbol = tokens.symbol(type, start, end);
+        }
+        return symbol;
+    }
+
     public TokenType getType() {
         return type;
     }
 
     @Override
     public String toString() {
-        return "Token(\"" + stringValue + "\"){" +
+        return "Token(\"" + getStringValue() + "\"){" +
                 "type=" + type +
                 ", start=" + start +
                 ", end=" + end +
@@ -55,8 +67,14 @@ public class Token {
                 '}';
     }
 
+    // the physical line the token starts on, which the column below is counted on
     public String getLineContent() {
-        String[] lines = tokenizer.src.split("\n");
-        return lines[line - 1];
+        return tokens.lineContent(tokens.lineOf(start));
+    }
+
+    // where the token starts on its line, counting from zero; unlike the line offset this is
+    // taken from the line index, so it is right for strings and error tokens too
+    public int getColumn() {
+        return tokens.columnOf(start);
     }
 }
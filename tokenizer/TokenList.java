@@ -1,40 +1,527 @@
 package edu.montana.csci.csci468.tokenizer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
-import static edu.montana.csci.csci468.tokenizer.TokenType.IDENTIFIER;
+import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class TokenList implements Iterable<Token> {
 
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 64;
+
     private final CatScriptTokenizer tokenizer;
-    List<Token> tokens = new ArrayList<>();
+
+    // tokens are stored as parallel primitive arrays, Token objects
+    // are only created when someone actually asks for one. The arrays are gap buffers, tokens are
+    // added at the gap and an edit moves it to where the text changed. Tokens after the gap store
+    // their positions relative to the end of the text and their lines relative to the last line,
+    // so an edit shifts them without touching them
+    int[] types;
+    int[] starts;
+    int[] ends;
+    int[] lines;
+    int[] lineOffsets;
+    Token[] views = new Token[0];
+    Map<Integer, String> errorMessages = new HashMap<>();
+    // indexes are absolute, the arrays hold tokens base through size - 1
+    int base = 0;
+    int size = 0;
+    // how many of those come before the gap and how many after it, only edits leave any after it
+    int gapStart = 0;
+    int afterGap = 0;
     int currentToken = 0;
+    // streamed lists are filled as the parser asks for tokens rather than up front
+    boolean streaming = false;
+    boolean complete = false;
+    // where each physical line starts, newlines inside strings included, a gap buffer like the tokens
+    int[] lineStarts = new int[INITIAL_CAPACITY];
+    int lineCount = 1;
+    int lineGapStart = 1;
+    int linesAfterGap = 0;
+    // the length of the text and the line of the EOF token, which the positions and lines after
+    // the gaps count back from. Token lines don't count newlines inside strings, line starts do
+    int textLength;
+    int lastLine;
+    // set once an edit has moved this list's tokens into a new list
+    boolean superseded = false;
+    // identifiers and string literals are interned when the parser asks for them
+    SymbolInterner symbols = new SymbolInterner();
 
     public TokenList(CatScriptTokenizer tokenizer) {
+        this(tokenizer, INITIAL_CAPACITY);
+    }
+
+    TokenList(CatScriptTokenizer tokenizer, int capacity) {
         this.tokenizer = tokenizer;
+        capacity = Math.max(capacity, INITIAL_CAPACITY);
+        types = new int[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+        lines = new int[capacity];
+        lineOffsets = new int[capacity];
+    }
+
+    void addToken(TokenType type, int start, int end, int line, int lineOffset) {
+        int slot = gapStart;
+        if (slot + afterGap == types.length) {
+            grow();
+        }
+        types[slot] = type.ordinal();
+        starts[slot] = start;
+        ends[slot] = end;
+        lines[slot] = line;
+        lineOffsets[slot] = lineOffset - (end - start);
+        gapStart++;
+        size++;
+        if (type == EOF) {
+            complete = true;
+            lastLine = line;
+        }
+    }
+
+    void addErrorToken(String message, int start, int end, int line, int lineOffset) {
+        errorMessages.put(base + gapStart, message);
+        addToken(ERROR, start, end, line, lineOffset);
+    }
+
+    void addLineStart(int position) {
+        if (lineCount == lineStarts.length) {
+            int[] grown = new int[lineCount * 2];
+            System.arraycopy(lineStarts, 0, grown, 0, lineGapStart);
+            System.arraycopy(lineStarts, lineCount - linesAfterGap, grown, grown.length - linesAfterGap, linesAfterGap);
+            lineStarts = grown;
+        }
+        lineStarts[lineGapStart++] = position;
+        lineCount++;
+    }
+
+    // the position line index + 1 starts at
+    private int lineStart(int index) {
+        if (index < lineGapStart) {
+            return lineStarts[index];
+        }
+        return lineStarts[index + lineStarts.length - lineCount] + textLength;
+    }
+
+    // room for a list put together from pieces scanned separately, which copyPiece then fills
+    // in from any number of threads at once, each piece at its own slots
+    void reserve(int tokenCount, int lineStartCount) {
+        ensureCapacity(tokenCount);
+        if (lineStartCount > lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineStartCount);
+        }
+    }
+
+    // copies the first count tokens of a piece and all its line starts but the first, which is
+    // where the piece starts and so the last line start of the piece before it
+    void copyPiece(TokenList piece, int count, int slot, int lineSlot, int positionShift, int lineShift) {
+        System.arraycopy(piece.types, 0, types, slot, count);
+        System.arraycopy(piece.lineOffsets, 0, lineOffsets, slot, count);
+        for (int i = 0; i < count; i++) {
+            starts[slot + i] = piece.starts[i] + positionShift;
+            ends[slot + i] = piece.ends[i] + positionShift;
+            lines[slot + i] = piece.lines[i] + lineShift;
+        }
+        for (int i = 1; i < piece.lineCount; i++) {
+            lineStarts[lineSlot + i - 1] = piece.lineStarts[i] + positionShift;
+        }
+    }
+
+    void copyPieceErrors(TokenList piece, int count, int slot) {
+        for (Map.Entry<Integer, String> error : piece.errorMessages.entrySet()) {
+            if (error.getKey() < count) {
+                errorMessages.put(slot + error.getKey(), error.getValue());
+            }
+        }
+    }
+
+    // takes the copied pieces as the whole list, the last of them ended with the EOF token
+    void piecesCopied(int tokenCount, int lineStartCount) {
+        size = tokenCount;
+        gapStart = tokenCount;
+        lineCount = lineStartCount;
+        lineGapStart = lineStartCount;
+        complete = true;
+        lastLine = lines[tokenCount - 1];
+    }
+
+    int firstTokenEndingAtOrAfter(int position) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getEnd(mid) < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            resize(capacity);
+        }
+    }
+
+    private void grow() {
+        resize(types.length * 2);
     }
 
-    void addToken(TokenType eof, String stringValue, int start, int end, int line, int lineOffset) {
-        tokens.add(new Token(start, end, line, lineOffset - (end - start), stringValue, eof, tokenizer));
+    private void resize(int capacity) {
+        types = resize(types, capacity);
+        starts = resize(starts, capacity);
+        ends = resize(ends, capacity);
+        lines = resize(lines, capacity);
+        lineOffsets = resize(lineOffsets, capacity);
+    }
+
+    private int[] resize(int[] values, int capacity) {
+        int[] resized = new int[capacity];
+        System.arraycopy(values, 0, resized, 0, gapStart);
+        System.arraycopy(values, values.length - afterGap, resized, capacity - afterGap, afterGap);
+        return resized;
+    }
+
+    // scans ahead on streamed lists until the token at index exists or the input runs out
+    private void fill(int index) {
+        while (index >= size && !complete) {
+            if (superseded) {
+                throw new IllegalStateException("This token list was edited, use the token list the edit produced");
+            }
+            tokenizer.scanNext();
+        }
+    }
+
+    // where the token at a slot counting from base is stored
+    private int physical(int slot) {
+        return slot < gapStart ? slot : slot + types.length - gapStart - afterGap;
+    }
+
+    //==============================================================
+    // Edits
+    //==============================================================
+
+    // the index the next token added gets
+    int gapIndex() {
+        return base + gapStart;
+    }
+
+    // a list for the tokenizer of an edit of this one, taking over this list's storage
+    TokenList edit(CatScriptTokenizer editTokenizer, CharSource.GapSource source) {
+        if (streaming || base > 0) {
+            throw new IllegalStateException("Streamed token lists can't be edited");
+        }
+        TokenList edited = new TokenList(editTokenizer, 0);
+        edited.types = types;
+        edited.starts = starts;
+        edited.ends = ends;
+        edited.lines = lines;
+        edited.lineOffsets = lineOffsets;
+        edited.errorMessages = errorMessages;
+        edited.size = size;
+        edited.gapStart = gapStart;
+        edited.afterGap = afterGap;
+        edited.complete = complete;
+        edited.lineStarts = lineStarts;
+        edited.lineCount = lineCount;
+        edited.lineGapStart = lineGapStart;
+        edited.linesAfterGap = linesAfterGap;
+        edited.textLength = source.length();
+        edited.lastLine = lastLine;
+
+        superseded = true;
+        complete = false;
+        size = 0;
+        gapStart = 0;
+        afterGap = 0;
+        views = new Token[0];
+        tokenizer.src = CharSource.SUPERSEDED;
+        return edited;
+    }
+
+    // moves the gap so that tokens from index on and the line starts after position come after it
+    void moveGaps(int index, int position) {
+        while (gapStart > index) {
+            int from = --gapStart;
+            int to = types.length - ++afterGap;
+            types[to] = types[from];
+            starts[to] = starts[from] - textLength;
+            ends[to] = ends[from] - textLength;
+            lines[to] = lines[from] - lastLine;
+            lineOffsets[to] = lineOffsets[from];
+        }
+        while (gapStart < index) {
+            int from = types.length - afterGap--;
+            int to = gapStart++;
+            types[to] = types[from];
+            starts[to] = starts[from] + textLength;
+            ends[to] = ends[from] + textLength;
+            lines[to] = lines[from] + lastLine;
+            lineOffsets[to] = lineOffsets[from];
+        }
+        int lineIndex = lineOf(position);
+        while (lineGapStart > lineIndex) {
+            int from = --lineGapStart;
+            lineStarts[lineStarts.length - ++linesAfterGap] = lineStarts[from] - textLength;
+        }
+        while (lineGapStart < lineIndex) {
+            int from = lineStarts.length - linesAfterGap--;
+            lineStarts[lineGapStart++] = lineStarts[from] + textLength;
+        }
+    }
+
+    // the tokens and line starts before the gap are kept, the rest is scanned again
+    void dropAfterGap() {
+        size -= afterGap;
+        afterGap = 0;
+        lineCount -= linesAfterGap;
+        linesAfterGap = 0;
+    }
+
+    void textEdited(int shift) {
+        textLength += shift;
+    }
+
+    // the first token after the gap, drops the ones starting before position and returns whether
+    // the next one is the same as the token just scanned at index, which then replaces it
+    boolean resynchronize(int index, int position, Map<Integer, String> trailingErrors) {
+        while (afterGap > 0 && getStart(base + gapStart) < position) {
+            afterGap--;
+            size--;
+        }
+        if (afterGap == 0) {
+            return false;
+        }
+        int next = base + gapStart;
+        if (getType(next) != getType(index) || getStart(next) != getStart(index) || getEnd(next) != getEnd(index) ||
+                getLineOffset(next) != getLineOffset(index) ||
+                !Objects.equals(trailingErrors.get(-afterGap), errorMessages.get(index))) {
+            return false;
+        }
+        lastLine = getLine(index) - lines[physical(next - base)];
+        afterGap--;
+        size--;
+        int end = getEnd(index);
+        while (linesAfterGap > 0 && lineStart(lineGapStart) <= end) {
+            linesAfterGap--;
+            lineCount--;
+        }
+        // the errors of the tokens kept after the gap were numbered from the end
+        for (Map.Entry<Integer, String> error : trailingErrors.entrySet()) {
+            if (error.getKey() >= -afterGap) {
+                errorMessages.put(size + error.getKey(), error.getValue());
+            }
+        }
+        return true;
+    }
+
+    // takes out the errors of tokens from index on, numbered back from the end of the list
+    Map<Integer, String> takeErrorsFrom(int index) {
+        Map<Integer, String> trailing = new HashMap<>();
+        errorMessages.entrySet().removeIf(error -> {
+            if (error.getKey() >= index) {
+                trailing.put(error.getKey() - size, error.getValue());
+                return true;
+            }
+            return false;
+        });
+        return trailing;
+    }
+
+    // drops the tokens before the previous one, along with the text behind them, once the
+    // parser has moved past them; only streamed lists discard anything
+    public void discardConsumed() {
+        int keep = currentToken - 1;
+        int dropped = keep - base;
+        // compacting only when at least half the window is dead keeps the copying linear
+        if (!streaming || dropped <= 0 || dropped < size - keep) {
+            return;
+        }
+        for (int i = 0; i < Math.min(dropped, views.length); i++) {
+            if (views[i] != null) {
+                views[i].getStringValue();
+            }
+        }
+        errorMessages.keySet().removeIf(index -> index < keep);
+        int retained = size - keep;
+        System.arraycopy(types, dropped, types, 0, retained);
+        System.arraycopy(starts, dropped, starts, 0, retained);
+        System.arraycopy(ends, dropped, ends, 0, retained);
+        System.arraycopy(lines, dropped, lines, 0, retained);
+        System.arraycopy(lineOffsets, dropped, lineOffsets, 0, retained);
+        if (views.length > dropped) {
+            System.arraycopy(views, dropped, views, 0, views.length - dropped);
+            Arrays.fill(views, views.length - dropped, views.length, null);
+        } else {
+            Arrays.fill(views, null);
+        }
+        base = keep;
+        gapStart = retained;
+        // keep the whole line of the oldest token around for error messages
+        tokenizer.src.release(lineStart(lineOf(starts[0]) - 1));
+    }
+
+    // the number of tokens scanned so far, which is all of them unless the list is streamed
+    public int size() {
+        return size;
+    }
+
+    public Token get(int index) {
+        fill(index);
+        if (index >= size || index < base) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int slot = index - base;
+        if (slot >= views.length) {
+            views = Arrays.copyOf(views, Math.max(slot + 1, Math.min(size - base, views.length * 2 + INITIAL_CAPACITY)));
+        }
+        Token token = views[slot];
+        if (token == null) {
+            TokenType type = getType(index);
+            String stringValue = type == ERROR ? errorMessages.get(index) : null;
+            token = new Token(getStart(index), getEnd(index), getLine(index), getLineOffset(index), stringValue, type, this);
+            views[slot] = token;
+        }
+        return token;
+    }
+
+    public TokenType getType(int index) {
+        fill(index);
+        return TYPES[types[physical(index - base)]];
+    }
+
+    public int getStart(int index) {
+        fill(index);
+        int slot = index - base;
+        return slot < gapStart ? starts[slot] : starts[physical(slot)] + textLength;
+    }
+
+    public int getEnd(int index) {
+        fill(index);
+        int slot = index - base;
+        return slot < gapStart ? ends[slot] : ends[physical(slot)] + textLength;
+    }
+
+    public int getLine(int index) {
+        fill(index);
+        int slot = index - base;
+        return slot < gapStart ? lines[slot] : lines[physical(slot)] + lastLine;
+    }
+
+    public int getLineOffset(int index) {
+        fill(index);
+        return lineOffsets[physical(index - base)];
+    }
+
+    CatScriptTokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    String getSource() {
+        return tokenizer.src.toString();
+    }
+
+    // the physical line containing position, counting from one
+    public int lineOf(int position) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStart(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    // how far position is from the start of its line
+    public int columnOf(int position) {
+        return position - lineStart(lineOf(position) - 1);
+    }
+
+    // the text of a line without its newline, empty when it is unknown or streamed text has been released
+    public String lineContent(int line) {
+        if (line < 1 || line > lineCount) {
+            return "";
+        }
+        CharSource source = tokenizer.src;
+        int start = lineStart(line - 1);
+        if (!source.isAvailable(start)) {
+            return "";
+        }
+        int end;
+        if (line < lineCount) {
+            end = lineStart(line) - 1;
+        } else {
+            end = start;
+            while (source.has(end) && source.charAt(end) != '\n') {
+                end++;
+            }
+        }
+        return source.substring(start, end);
+    }
+
+    String lexeme(TokenType type, int start, int end) {
+        if (type == EOF) {
+            return "<EOF>";
+        } else if (type == STRING || type == IDENTIFIER) {
+            return symbol(type, start, end).getName();
+        } else {
+            return tokenizer.src.substring(start, end);
+        }
+    }
+
+    Symbol symbol(TokenType type, int start, int end) {
+        // the end of a string token includes the closing quote
+        return symbols.intern(tokenizer.src, start, type == STRING ? end - 1 : end);
+    }
+
+    public SymbolInterner getSymbols() {
+        return symbols;
     }
 
     public Token getCurrentToken() {
-        return tokens.get(currentToken);
+        return get(currentToken);
+    }
+
+    public TokenType getCurrentType() {
+        return getType(currentToken);
+    }
+
+    public TokenType lookAhead(int distance) {
+        return getType(currentToken + distance);
     }
 
     public Token consumeToken() {
-        return tokens.get(currentToken++);
+        return get(currentToken++);
+    }
+
+    public boolean matchAndConsume(TokenType type) {
+        if (match(type)) {
+            currentToken++;
+            return true;
+        } else {
+            return false;
+        }
     }
 
     public boolean matchAndConsume(TokenType... type) {
         if (match(type)) {
-            consumeToken();
+            currentToken++;
             return true;
         } else {
             return false;
@@ -42,17 +529,26 @@ public class TokenList implements Iterable<Token> {
     }
 
     public boolean match(String identifier) {
-        if (getCurrentToken().getType().equals(IDENTIFIER) &&
-            getCurrentToken().getStringValue().equals(identifier)) {
-            return true;
+        fill(currentToken);
+        if (types[physical(currentToken - base)] == IDENTIFIER.ordinal()) {
+            int start = getStart(currentToken);
+            return getEnd(currentToken) - start == identifier.length() &&
+                    tokenizer.src.regionMatches(start, identifier);
         } else {
             return false;
         }
     }
 
+    public boolean match(TokenType type) {
+        fill(currentToken);
+        return types[physical(currentToken - base)] == type.ordinal();
+    }
+
     public boolean match(TokenType... type) {
+        fill(currentToken);
+        int current = types[physical(currentToken - base)];
         for (TokenType tokenType : type) {
-            if (getCurrentToken().getType().equals(tokenType)) {
+            if (current == tokenType.ordinal()) {
                 return true;
             }
         }
@@ -60,41 +556,67 @@ public class TokenList implements Iterable<Token> {
     }
 
     public void reset() {
+        if (base > 0) {
+            throw new IllegalStateException("Tokens before " + base + " have been discarded");
+        }
         currentToken = 0;
     }
 
     public boolean hasMoreTokens() {
-        return currentToken < tokens.size() - 1;
+        fill(currentToken + 1);
+        return currentToken < size - 1;
     }
 
     public Token lastToken() {
-        return tokens.get(Math.max(0, currentToken - 1));
+        return get(Math.max(0, currentToken - 1));
     }
 
     public Stream<Token> stream() {
-        return tokens.stream();
+        return StreamSupport.stream(spliterator(), false);
     }
 
     @Override
     public Iterator<Token> iterator() {
-        return tokens.iterator();
+        return new Iterator<>() {
+            int index = base;
+
+            @Override
+            public boolean hasNext() {
+                fill(index);
+                return index < size;
+            }
+
+            @Override
+            public Token next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
     }
 
     @Override
-    public void forEach(Consumer action) {
-        tokens.forEach(action);
+    public void forEach(Consumer<? super Token> action) {
+        for (int i = base; i < size || !complete; i++) {
+            action.accept(get(i));
+        }
     }
 
     @Override
     public Spliterator<Token> spliterator() {
-        return tokens.spliterator();
+        if (complete) {
+            return Spliterators.spliterator(iterator(), size - base, Spliterator.ORDERED | Spliterator.NONNULL);
+        } else {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
+        for (int i = base; i < size; i++) {
+            Token token = get(i);
             if (i == currentToken) {
                 sb.append("-->[");
             }
@@ -0,0 +1,114 @@
+package edu.montana.csci.csci468.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// A thread safe least recently used cache bounded by the total weight of its values.
+// Values are loaded outside the lock, so two threads missing on the same key may both
+// load it and the last one in wins. A value that grows after it was cached is weighed
+// again through reweigh.
+public class BoundedCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // what each value weighed when it was last weighed, which is what it counts for
+    private final Map<K, Long> weights = new HashMap<>();
+    private final ToLongFunction<V> weigher;
+    private final long maxWeight;
+    private long weight = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public BoundedCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        synchronized (this) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+        }
+        V value = loader.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        // a value bigger than the whole cache would only flush everything else out
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, value);
+        Long previousWeight = weights.put(key, valueWeight);
+        if (previousWeight != null) {
+            weight -= previousWeight;
+        }
+        weight += valueWeight;
+        evict();
+    }
+
+    // weighs the value cached under key again if it is still the one given, evicting the least
+    // recently used entries if it grew the cache past its bound
+    public synchronized void reweigh(K key, V value) {
+        if (entries.get(key) != value) {
+            return;
+        }
+        long valueWeight = weigher.applyAsLong(value);
+        weight += valueWeight - weights.put(key, valueWeight);
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            weight -= weights.remove(eldest.next().getKey());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weights.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "entries=" + entries.size() +
+                ", weight=" + weight + "/" + maxWeight +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions;
+    }
+}
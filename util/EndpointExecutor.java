@@ -0,0 +1,151 @@
+package edu.montana.csci.csci468.util;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs one endpoint's requests on threads of their own, virtual ones on JVMs that have them, at
+// most maxConcurrent at a time with up to maxQueued more waiting their turn. Past that a request
+// is turned away with a 503 straight away. The server thread that took the request still waits
+// for it, so the limits are what keep a slow endpoint from tying up the whole server pool and
+// starving the cheap ones, and the server pool needs a thread for every request the endpoints
+// can admit, see getMaxAdmitted. Limits can be set with -Dcatscript.endpoint.<name>.concurrency
+// and .queue.
+public class EndpointExecutor {
+
+    private static final ExecutorService THREADS = newThreadPerTaskExecutor();
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Semaphore running;
+    // running plus queued
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public EndpointExecutor(String name, int maxConcurrent, int maxQueued) {
+        this.name = name;
+        this.maxConcurrent = Integer.getInteger("catscript.endpoint." + name + ".concurrency", maxConcurrent);
+        this.maxQueued = Integer.getInteger("catscript.endpoint." + name + ".queue", maxQueued);
+        this.running = new Semaphore(this.maxConcurrent, true);
+    }
+
+    public Route wrap(Route route) {
+        return (req, resp) -> handle(route, req, resp);
+    }
+
+    public Object handle(Route route, Request req, Response resp) throws Exception {
+        if (admitted.incrementAndGet() > maxConcurrent + maxQueued) {
+            admitted.decrementAndGet();
+            rejected.increment();
+            resp.status(503);
+            resp.header("Retry-After", "1");
+            return "<pre>The server is too busy to " + name + " this right now, try again shortly</pre>";
+        }
+        FutureTask<Object> result = new FutureTask<>(() -> {
+            running.acquire();
+            try {
+                return route.handle(req, resp);
+            } finally {
+                running.release();
+            }
+        });
+        CountDownLatch finished = new CountDownLatch(1);
+        try {
+            // the request only stops counting once its thread is done with it, a cancelled task
+            // can still be running, and one cancelled before it started returns straight away
+            THREADS.execute(() -> {
+                try {
+                    result.run();
+                } finally {
+                    admitted.decrementAndGet();
+                    completed.increment();
+                    finished.countDown();
+                }
+            });
+        } catch (RuntimeException notStarted) {
+            admitted.decrementAndGet();
+            throw notStarted;
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            // the task may still be reading the request or writing the response, both of which
+            // Jetty reuses once this thread hands them back, so it is interrupted and then waited
+            // out; the execution budgets bound how long a program keeps running
+            result.cancel(true);
+            awaitUninterruptibly(finished);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException again) {
+                // keep waiting, the caller restores the interrupt
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // the most requests this endpoint holds at once, running and queued, each of which keeps a
+    // server thread waiting on it
+    public int getMaxAdmitted() {
+        return maxConcurrent + maxQueued;
+    }
+
+    public int getInFlight() {
+        return admitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": concurrency " + maxConcurrent + ", queue " + maxQueued + ", in flight " + admitted.get() +
+                ", completed " + completed.sum() + ", rejected " + rejected.sum();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() only exists from Java 21 on, before that every
+    // task gets a platform thread, which the limits keep few
+    private static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException notAvailable) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "catscript-endpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.montana.csci.csci468.util;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompiledProgram;
+import edu.montana.csci.csci468.eval.StatementClosure;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import edu.montana.csci.csci468.vm.RegisterFunction;
+import edu.montana.csci.csci468.vm.RegisterProgram;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Parsed and verified programs keyed by a SHA-256 of their source. Cached programs are shared
+// between requests, so they must only be read after they come out of the cache, executions
+// keep their state and output in their own CatscriptRuntime. An entry compiles its program to
+// bytecode, closures or register code at most once, the generated class goes away with the entry.
+public class ProgramCache {
+
+    // entries are weighed in estimated bytes retained, from what parse trees, closures, register
+    // code and generated classes (heap and metaspace) measured on scripts of 30 chars to 200 KB.
+    // A class costs more than the parse tree of a small program, so compiling one charges for it
+    private static final long MAX_BYTES = 512L * 1024 * 1024;
+    private static final long ENTRY_BYTES = 2560;
+    private static final long PARSE_BYTES_PER_CHAR = 32;
+    private static final long CLOSURE_BYTES_PER_CHAR = 4;
+    private static final long REGISTER_BYTES_PER_WORD = 6;
+    private static final long CLASS_BYTES = 3072;
+    private static final long CLASS_BYTES_PER_CLASS_FILE_BYTE = 4;
+
+    private final BoundedCache<String, Entry> cache;
+
+    public ProgramCache() {
+        this(MAX_BYTES);
+    }
+
+    public ProgramCache(long maxBytes) {
+        cache = new BoundedCache<>(maxBytes, entry -> entry.weight);
+    }
+
+    public Entry get(String source) {
+        return cache.get(hash(source), key -> parse(key, source));
+    }
+
+    public BoundedCache<String, Entry> getCache() {
+        return cache;
+    }
+
+    private Entry parse(String key, String source) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        try {
+            program.verify();
+            return new Entry(this, key, program, null, source.length());
+        } catch (RuntimeException verificationFailure) {
+            // usually a ParseErrorException, anything else is remembered too so that
+            // rendering the parse tree still works for programs validation trips over
+            return new Entry(this, key, program, verificationFailure, source.length());
+        }
+    }
+
+    private static String hash(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Entry {
+        private final ProgramCache owner;
+        private final String key;
+        private final CatScriptProgram program;
+        private final RuntimeException verificationFailure;
+        private final int sourceLength;
+        private CompiledProgram compiledProgram;
+        private StatementClosure closure;
+        private RegisterProgram registerProgram;
+        // read by the cache without this entry's lock, which is never held while calling into
+        // the cache, so the two locks are never taken in opposite orders
+        private volatile long weight;
+
+        Entry(ProgramCache owner, String key, CatScriptProgram program, RuntimeException verificationFailure,
+              int sourceLength) {
+            this.owner = owner;
+            this.key = key;
+            this.program = program;
+            this.verificationFailure = verificationFailure;
+            this.sourceLength = sourceLength;
+            this.weight = ENTRY_BYTES + PARSE_BYTES_PER_CHAR * sourceLength;
+        }
+
+        // the program whether or not it verified, for rendering the parse tree
+        public CatScriptProgram getProgram() {
+            return program;
+        }
+
+        // the program, or the errors verifying it produced
+        public CatScriptProgram getVerifiedProgram() {
+            if (verificationFailure != null) {
+                throw verificationFailure;
+            }
+            return program;
+        }
+
+        public CompiledProgram getCompiledProgram() {
+            synchronized (this) {
+                if (compiledProgram != null) {
+                    return compiledProgram;
+                }
+                compiledProgram = new ByteCodeGenerator(getVerifiedProgram()).compileToClass();
+                weight += CLASS_BYTES + CLASS_BYTES_PER_CLASS_FILE_BYTE * compiledProgram.getClassBytes().length;
+            }
+            owner.cache.reweigh(key, this);
+            return compiledProgram;
+        }
+
+        public StatementClosure getClosure() {
+            synchronized (this) {
+                if (closure != null) {
+                    return closure;
+                }
+                closure = getVerifiedProgram().compileClosure();
+                weight += CLOSURE_BYTES_PER_CHAR * sourceLength;
+            }
+            owner.cache.reweigh(key, this);
+            return closure;
+        }
+
+        public RegisterProgram getRegisterProgram() {
+            synchronized (this) {
+                if (registerProgram != null) {
+                    return registerProgram;
+                }
+                registerProgram = new RegisterCompiler(getVerifiedProgram()).compile();
+                long words = registerProgram.getMain().getCodeLength();
+                for (RegisterFunction function : registerProgram.getFunctions()) {
+                    words += function.getCodeLength();
+                }
+                weight += REGISTER_BYTES_PER_WORD * words;
+            }
+            owner.cache.reweigh(key, this);
+            return registerProgram;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+}
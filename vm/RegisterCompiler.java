@@ -0,0 +1,258 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import static edu.montana.csci.csci468.vm.RegisterOps.*;
+
+// Compiles a verified program to register code, the nodes emit their own instructions through
+// compileRegisters much as they do for the ByteCodeGenerator. Expressions return the register
+// holding their value, ints and booleans in the int file and everything else in the object file.
+public class RegisterCompiler {
+
+    private final CatScriptProgram program;
+    private final Map<FunctionDefinitionStatement, Integer> functionIndexes = new HashMap<>();
+    private final List<RegisterFunction> functions = new ArrayList<>();
+    private final Stack<FunctionCode> functionStack = new Stack<>();
+    private FunctionCode current;
+    private boolean globalsAssignedByFunctions = false;
+
+    public RegisterCompiler(CatScriptProgram program) {
+        this.program = program;
+    }
+
+    public RegisterProgram compile() {
+        current = new FunctionCode("<main>", program.getGlobalFrameSize());
+        program.compileRegisters(this);
+        emit(RETV);
+        RegisterFunction main = current.finish(new boolean[0], false);
+        for (Map.Entry<FunctionDefinitionStatement, Integer> entry : functionIndexes.entrySet()) {
+            if (functions.get(entry.getValue()) == null) {
+                throw new IllegalStateException("Function " + entry.getKey().getName() + " was called but never compiled");
+            }
+        }
+        return new RegisterProgram(main, functions.toArray(new RegisterFunction[0]));
+    }
+
+    public static boolean isIntKind(CatscriptType type) {
+        return CatscriptType.INT.equals(type) || CatscriptType.BOOLEAN.equals(type);
+    }
+
+    //==============================================================
+    // Functions
+    //==============================================================
+
+    public int functionIndex(FunctionDefinitionStatement function) {
+        return functionIndexes.computeIfAbsent(function, key -> {
+            functions.add(null);
+            return functions.size() - 1;
+        });
+    }
+
+    public void pushFunction(FunctionDefinitionStatement function, int frameSize) {
+        functionStack.push(current);
+        current = new FunctionCode(function.getName(), frameSize);
+    }
+
+    public void popFunction(FunctionDefinitionStatement function) {
+        boolean[] intParameters = new boolean[function.getParameterCount()];
+        for (int i = 0; i < intParameters.length; i++) {
+            intParameters[i] = isIntKind(function.getParameterType(i));
+        }
+        emit(RETV);
+        functions.set(functionIndex(function), current.finish(intParameters, isIntKind(function.getType())));
+        current = functionStack.pop();
+    }
+
+    public boolean isInFunction() {
+        return !functionStack.isEmpty();
+    }
+
+    // the program's variables live in its own registers, so while they are read directly a call
+    // to a function that assigns one could change it under an expression that already read it
+    public void globalAssignedByFunction() {
+        globalsAssignedByFunctions = true;
+    }
+
+    public boolean isGlobalAssignedByFunctions() {
+        return globalsAssignedByFunctions;
+    }
+
+    //==============================================================
+    // Registers
+    //==============================================================
+
+    public int intTemp() {
+        return current.nextInt++;
+    }
+
+    public int objectTemp() {
+        return current.nextObject++;
+    }
+
+    public int temp(CatscriptType type) {
+        return isIntKind(type) ? intTemp() : objectTemp();
+    }
+
+    // an object temporary that stays live across the statements that follow, until unpinned. It
+    // has to be the first temporary its statement allocates
+    public int pinObjectTemp() {
+        int register = objectTemp();
+        current.objectFloor = current.nextObject;
+        return register;
+    }
+
+    public void unpinObjectTemp() {
+        current.objectFloor--;
+    }
+
+    // statements leave nothing behind in temporaries, so every one starts from the floor
+    public void compileBlock(List<Statement> statements) {
+        for (Statement statement : statements) {
+            statement.compileRegisters(this);
+            current.nextInt = current.intFloor;
+            current.nextObject = current.objectFloor;
+        }
+    }
+
+    // when the value was just computed into a temporary the instruction computing it is retargeted
+    // instead, unless a jump lands between the two
+    public void move(int destination, int source, CatscriptType type) {
+        if (destination == source) {
+            return;
+        }
+        boolean intKind = isIntKind(type);
+        int last = current.lastInstruction;
+        if (last >= 0 && current.jumpTarget != current.length && current.code[last + 1] == source
+                && (intKind ? source >= current.intFloor && writesIntRegister(current.code[last])
+                            : source >= current.objectFloor && writesObjectRegister(current.code[last]))) {
+            current.code[last + 1] = destination;
+        } else {
+            emit(intKind ? IMOVE : OMOVE, destination, source);
+        }
+    }
+
+    private static boolean writesIntRegister(int opcode) {
+        return opcode == ICONST || opcode == IMOVE || opcode == IGETG || (opcode >= IADD && opcode <= ONE)
+                || opcode == UNBOXI || opcode == UNBOXB;
+    }
+
+    private static boolean writesObjectRegister(int opcode) {
+        return opcode == OCONST || opcode == OMOVE || opcode == OGETG || opcode == BOXI || opcode == BOXB
+                || opcode == CONCAT || opcode == NEWLIST || opcode == ITER;
+    }
+
+    public int toObject(int register, CatscriptType type) {
+        if (CatscriptType.INT.equals(type)) {
+            int boxed = objectTemp();
+            emit(BOXI, boxed, register);
+            return boxed;
+        } else if (CatscriptType.BOOLEAN.equals(type)) {
+            int boxed = objectTemp();
+            emit(BOXB, boxed, register);
+            return boxed;
+        }
+        return register;
+    }
+
+    // moves a value between files when a conversion boxes or unboxes it
+    public int convert(int register, CatscriptType from, CatscriptType to) {
+        if (isIntKind(to) && !isIntKind(from)) {
+            int unboxed = intTemp();
+            emit(CatscriptType.INT.equals(to) ? UNBOXI : UNBOXB, unboxed, register);
+            return unboxed;
+        } else if (!isIntKind(to)) {
+            return toObject(register, from);
+        }
+        return register;
+    }
+
+    public void print(int register, CatscriptType type) {
+        if (CatscriptType.INT.equals(type)) {
+            emit(PRINTI, register);
+        } else if (CatscriptType.BOOLEAN.equals(type)) {
+            emit(PRINTB, register);
+        } else {
+            emit(PRINTO, register);
+        }
+    }
+
+    public int constant(Object value) {
+        return current.constants.computeIfAbsent(value, key -> current.constants.size());
+    }
+
+    //==============================================================
+    // Code
+    //==============================================================
+
+    public void emit(int opcode, int... operands) {
+        current.lastInstruction = current.length;
+        current.add(opcode);
+        for (int operand : operands) {
+            current.add(operand);
+        }
+    }
+
+    // the position of the next instruction, for a jump back to it
+    public int here() {
+        current.jumpTarget = current.length;
+        return current.length;
+    }
+
+    // emits a jump whose target is filled in by patch, returns where the target goes
+    public int emitForwardJump(int opcode, int... operands) {
+        emit(opcode, operands);
+        current.add(-1);
+        return current.length - 1;
+    }
+
+    public void patch(int jumpTarget) {
+        current.code[jumpTarget] = current.length;
+        current.jumpTarget = current.length;
+    }
+
+    private static class FunctionCode {
+        final String name;
+        final Map<Object, Integer> constants = new HashMap<>();
+        int[] code = new int[64];
+        int length = 0;
+        int lastInstruction = -1;
+        int jumpTarget = -1;
+        int intFloor;
+        int objectFloor;
+        int nextInt;
+        int nextObject;
+        int maxInt;
+        int maxObject;
+
+        FunctionCode(String name, int frameSize) {
+            this.name = name;
+            intFloor = objectFloor = nextInt = nextObject = maxInt = maxObject = frameSize;
+        }
+
+        void add(int value) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, length * 2);
+            }
+            code[length++] = value;
+            maxInt = Math.max(maxInt, nextInt);
+            maxObject = Math.max(maxObject, nextObject);
+        }
+
+        RegisterFunction finish(boolean[] intParameters, boolean returnsInt) {
+            Object[] constantPool = new Object[constants.size()];
+            constants.forEach((value, index) -> constantPool[index] = value);
+            return new RegisterFunction(name, Arrays.copyOf(code, length), constantPool,
+                    maxInt, maxObject, intParameters, returnsInt);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package edu.montana.csci.csci468.vm;
+
+// The compiled code of a function, or of the program's top level. Parameters arrive in the
+// first registers of the file their type lives in, variables keep the slots ScopeResolver gave
+// them and temporaries follow.
+public class RegisterFunction {
+
+    final String name;
+    final int[] code;
+    final Object[] constants;
+    final int intRegisters;
+    final int objectRegisters;
+    final boolean[] intParameters;
+    final boolean returnsInt;
+
+    RegisterFunction(String name, int[] code, Object[] constants, int intRegisters, int objectRegisters,
+                     boolean[] intParameters, boolean returnsInt) {
+        this.name = name;
+        this.code = code;
+        this.constants = constants;
+        this.intRegisters = intRegisters;
+        this.objectRegisters = objectRegisters;
+        this.intParameters = intParameters;
+        this.returnsInt = returnsInt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCodeLength() {
+        return code.length;
+    }
+}
@@ -0,0 +1,274 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import static edu.montana.csci.csci468.vm.RegisterOps.*;
+
+// One execution of a RegisterProgram. Every call gets a fresh pair of register files, the
+// top level's pair doubles as the program's globals.
+class RegisterMachine {
+
+    private final RegisterFunction[] functions;
+    private final CatscriptRuntime runtime;
+    private int[] globalInts;
+    private Object[] globalObjects;
+    // where a returning function leaves its value for the CALL that made it
+    private int intResult;
+    private Object objectResult;
+
+    RegisterMachine(RegisterFunction[] functions, CatscriptRuntime runtime) {
+        this.functions = functions;
+        this.runtime = runtime;
+    }
+
+    void run(RegisterFunction main) {
+        globalInts = new int[main.intRegisters];
+        globalObjects = new Object[main.objectRegisters];
+        execute(main, globalInts, globalObjects);
+    }
+
+    private void execute(RegisterFunction function, int[] ints, Object[] objects) {
+        final int[] code = function.code;
+        final Object[] constants = function.constants;
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case ICONST:
+                    ints[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case OCONST:
+                    objects[code[pc + 1]] = constants[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case IMOVE:
+                    ints[code[pc + 1]] = ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case OMOVE:
+                    objects[code[pc + 1]] = objects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case IGETG:
+                    ints[code[pc + 1]] = globalInts[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case OGETG:
+                    objects[code[pc + 1]] = globalObjects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case ISETG:
+                    globalInts[code[pc + 1]] = ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case OSETG:
+                    globalObjects[code[pc + 1]] = objects[code[pc + 2]];
+                    pc += 3;
+                    break;
+
+                case IADD:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] + ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case ISUB:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] - ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case IMUL:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] * ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case IDIV:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] / ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case INEG:
+                    ints[code[pc + 1]] = -ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case NOT:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] ^ 1;
+                    pc += 3;
+                    break;
+
+                case ILT:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] < ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case ILE:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] <= ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case IGT:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] > ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case IGE:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] >= ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case IEQ:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] == ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case INE:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] != ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case OEQ:
+                    ints[code[pc + 1]] = Objects.equals(objects[code[pc + 2]], objects[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case ONE:
+                    ints[code[pc + 1]] = Objects.equals(objects[code[pc + 2]], objects[code[pc + 3]]) ? 0 : 1;
+                    pc += 4;
+                    break;
+
+                case BOXI:
+                    objects[code[pc + 1]] = ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case BOXB:
+                    objects[code[pc + 1]] = ints[code[pc + 2]] != 0;
+                    pc += 3;
+                    break;
+                case UNBOXI:
+                    ints[code[pc + 1]] = (Integer) objects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case UNBOXB:
+                    ints[code[pc + 1]] = (Boolean) objects[code[pc + 2]] ? 1 : 0;
+                    pc += 3;
+                    break;
+                case CONCAT:
+                    objects[code[pc + 1]] = String.valueOf(objects[code[pc + 2]]) + objects[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case NEWLIST: {
+                    int count = code[pc + 2];
+                    runtime.allocateList(count);
+                    List<Object> list = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        list.add(objects[code[pc + 3 + i]]);
+                    }
+                    objects[code[pc + 1]] = list;
+                    pc += 3 + count;
+                    break;
+                }
+
+                case ITER:
+                    objects[code[pc + 1]] = ((List<?>) objects[code[pc + 2]]).iterator();
+                    pc += 3;
+                    break;
+                case INEXT: {
+                    Iterator<?> iterator = (Iterator<?>) objects[code[pc + 2]];
+                    if (iterator.hasNext()) {
+                        ints[code[pc + 1]] = (Integer) iterator.next();
+                        pc += 4;
+                    } else {
+                        pc = code[pc + 3];
+                    }
+                    break;
+                }
+                case BNEXT: {
+                    Iterator<?> iterator = (Iterator<?>) objects[code[pc + 2]];
+                    if (iterator.hasNext()) {
+                        ints[code[pc + 1]] = (Boolean) iterator.next() ? 1 : 0;
+                        pc += 4;
+                    } else {
+                        pc = code[pc + 3];
+                    }
+                    break;
+                }
+                case ONEXT: {
+                    Iterator<?> iterator = (Iterator<?>) objects[code[pc + 2]];
+                    if (iterator.hasNext()) {
+                        objects[code[pc + 1]] = iterator.next();
+                        pc += 4;
+                    } else {
+                        pc = code[pc + 3];
+                    }
+                    break;
+                }
+                case JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case LOOP:
+                    runtime.step();
+                    pc = code[pc + 1];
+                    break;
+                case JUMPF:
+                    pc = ints[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                    break;
+                case JLT:
+                    pc = ints[code[pc + 1]] < ints[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JLE:
+                    pc = ints[code[pc + 1]] <= ints[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JGT:
+                    pc = ints[code[pc + 1]] > ints[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JGE:
+                    pc = ints[code[pc + 1]] >= ints[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+
+                case CALL: {
+                    RegisterFunction callee = functions[code[pc + 1]];
+                    int argumentCount = code[pc + 3];
+                    int[] calleeInts = new int[callee.intRegisters];
+                    Object[] calleeObjects = new Object[callee.objectRegisters];
+                    boolean[] intParameters = callee.intParameters;
+                    for (int i = 0; i < argumentCount; i++) {
+                        int argument = code[pc + 4 + i];
+                        if (intParameters[i]) {
+                            calleeInts[i] = ints[argument];
+                        } else {
+                            calleeObjects[i] = objects[argument];
+                        }
+                    }
+                    runtime.enterCall();
+                    execute(callee, calleeInts, calleeObjects);
+                    runtime.exitCall();
+                    if (callee.returnsInt) {
+                        ints[code[pc + 2]] = intResult;
+                    } else {
+                        objects[code[pc + 2]] = objectResult;
+                        objectResult = null;
+                    }
+                    pc += 4 + argumentCount;
+                    break;
+                }
+                case RETI:
+                    intResult = ints[code[pc + 1]];
+                    return;
+                case RETO:
+                    objectResult = objects[code[pc + 1]];
+                    return;
+                case RETV:
+                    return;
+
+                case PRINTI:
+                    runtime.print(ints[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case PRINTB:
+                    runtime.print(ints[code[pc + 1]] != 0);
+                    pc += 2;
+                    break;
+                case PRINTO:
+                    runtime.print(objects[code[pc + 1]]);
+                    pc += 2;
+                    break;
+
+                default:
+                    throw new IllegalStateException("Bad opcode " + code[pc] + " at " + pc + " in " + function.name);
+            }
+        }
+    }
+}
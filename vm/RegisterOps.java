@@ -0,0 +1,63 @@
+package edu.montana.csci.csci468.vm;
+
+// Instructions of the register machine, each opcode is followed in the code array by the operands
+// listed next to it. Registers come in two files, ints (which also hold booleans as 0 or 1) and
+// objects, and an operand names a register in the file its instruction implies.
+public final class RegisterOps {
+
+    private RegisterOps() {
+    }
+
+    public static final int ICONST = 0;   // int dst, value
+    public static final int OCONST = 1;   // obj dst, constant index
+    public static final int IMOVE = 2;    // int dst, int src
+    public static final int OMOVE = 3;    // obj dst, obj src
+    public static final int IGETG = 4;    // int dst, global slot
+    public static final int OGETG = 5;    // obj dst, global slot
+    public static final int ISETG = 6;    // global slot, int src
+    public static final int OSETG = 7;    // global slot, obj src
+
+    public static final int IADD = 8;     // int dst, int lhs, int rhs
+    public static final int ISUB = 9;
+    public static final int IMUL = 10;
+    public static final int IDIV = 11;
+    public static final int INEG = 12;    // int dst, int src
+    public static final int NOT = 13;     // int dst, int src
+
+    public static final int ILT = 14;     // int dst, int lhs, int rhs
+    public static final int ILE = 15;
+    public static final int IGT = 16;
+    public static final int IGE = 17;
+    public static final int IEQ = 18;
+    public static final int INE = 19;
+    public static final int OEQ = 20;     // int dst, obj lhs, obj rhs
+    public static final int ONE = 21;
+
+    public static final int BOXI = 22;    // obj dst, int src
+    public static final int BOXB = 23;    // obj dst, int src
+    public static final int UNBOXI = 24;  // int dst, obj src
+    public static final int UNBOXB = 25;  // int dst, obj src
+    public static final int CONCAT = 26;  // obj dst, obj lhs, obj rhs
+    public static final int NEWLIST = 27; // obj dst, count, obj elements...
+
+    public static final int ITER = 28;    // obj dst, obj list
+    public static final int INEXT = 29;   // int dst, obj iterator, exit pc
+    public static final int BNEXT = 30;   // int dst, obj iterator, exit pc
+    public static final int ONEXT = 31;   // obj dst, obj iterator, exit pc
+    public static final int JUMP = 32;    // pc
+    public static final int JUMPF = 33;   // int condition, pc
+    public static final int JLT = 34;     // int lhs, int rhs, pc
+    public static final int JLE = 35;
+    public static final int JGT = 36;
+    public static final int JGE = 37;
+    public static final int LOOP = 45;    // pc, a loop's back-edge, charges a step
+
+    public static final int CALL = 38;    // function index, dst, argument count, arguments...
+    public static final int RETI = 39;    // int src
+    public static final int RETO = 40;    // obj src
+    public static final int RETV = 41;
+
+    public static final int PRINTI = 42;  // int src
+    public static final int PRINTB = 43;  // int src
+    public static final int PRINTO = 44;  // obj src
+}
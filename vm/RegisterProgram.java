@@ -0,0 +1,28 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+
+// A program compiled to register code. It holds nothing an execution changes, so it can be
+// shared and run any number of times, each run printing into the runtime it is given.
+public class RegisterProgram {
+
+    private final RegisterFunction main;
+    private final RegisterFunction[] functions;
+
+    RegisterProgram(RegisterFunction main, RegisterFunction[] functions) {
+        this.main = main;
+        this.functions = functions;
+    }
+
+    public void execute(CatscriptRuntime runtime) {
+        new RegisterMachine(functions, runtime).run(main);
+    }
+
+    public RegisterFunction getMain() {
+        return main;
+    }
+
+    public RegisterFunction[] getFunctions() {
+        return functions.clone();
+    }
+}